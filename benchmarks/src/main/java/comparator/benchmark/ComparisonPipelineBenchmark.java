@@ -0,0 +1,125 @@
+package comparator.benchmark;
+
+import comparator.DifferenceAnalyzer;
+import comparator.DifferenceFinder;
+import comparator.DifferenceResult;
+import comparator.DocumentPair;
+import comparator.ReportGenerator;
+import comparator.XmlComparator;
+import comparator.XmlUtils;
+import comparator.similarity.SimilarityCalculator;
+import comparator.similarity.SimilarityResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Document;
+import org.xmlunit.diff.Difference;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ComparisonPipelineBenchmark {
+
+    @Param({"100", "1000"})
+    private int records;
+
+    @Param({"3"})
+    private int depth;
+
+    @Param({"4"})
+    private int fanOut;
+
+    @Param({"0.01"})
+    private double differenceRate;
+
+    @Param({"0.01"})
+    private double reorderRate;
+
+    private Path workDirectory;
+    private Path controlXml;
+    private Path testXml;
+    private Path reportFile;
+
+    private Document controlXmlDocument;
+    private Document testXmlDocument;
+    private List<Difference> differences;
+    private DifferenceResult differenceResult;
+    private SimilarityResult similarityResult;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workDirectory = Files.createTempDirectory("xml-comparator-benchmark");
+        controlXml = workDirectory.resolve("control.xml");
+        testXml = workDirectory.resolve("test.xml");
+        reportFile = workDirectory.resolve("report.txt");
+
+        SyntheticXmlGenerator.generate(new XmlShape(records, depth, fanOut, differenceRate, reorderRate, 42L), controlXml, testXml);
+
+        final DocumentPair documents = XmlUtils.parseXML(controlXml.toFile(), testXml.toFile());
+        controlXmlDocument = documents.controlXml();
+        testXmlDocument = documents.testXml();
+        differences = DifferenceFinder.findDifferences(controlXmlDocument, testXmlDocument);
+        differenceResult = DifferenceAnalyzer.analyzeDifferences(differences);
+        similarityResult = SimilarityCalculator.calculate(controlXmlDocument, differenceResult.textDifferences().size());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (final Stream<Path> files = Files.walk(workDirectory)) {
+            for (final Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public DocumentPair parse() throws IOException {
+        return XmlUtils.parseXML(controlXml.toFile(), testXml.toFile());
+    }
+
+    @Benchmark
+    public List<Difference> findDifferences() {
+        return DifferenceFinder.findDifferences(controlXmlDocument, testXmlDocument);
+    }
+
+    @Benchmark
+    public DifferenceResult analyzeDifferences() {
+        return DifferenceAnalyzer.analyzeDifferences(differences);
+    }
+
+    @Benchmark
+    public int countNodes() {
+        return XmlUtils.countNodes(controlXmlDocument);
+    }
+
+    @Benchmark
+    public void generateReport() {
+        ReportGenerator.generateReport(differenceResult, similarityResult, reportFile.toString());
+    }
+
+    @Benchmark
+    public void compare() {
+        XmlComparator.compare(controlXml.toString(), testXml.toString(), reportFile.toString());
+    }
+}
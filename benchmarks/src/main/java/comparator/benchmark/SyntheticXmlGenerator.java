@@ -0,0 +1,118 @@
+package comparator.benchmark;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class SyntheticXmlGenerator {
+
+    private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+
+    public static void generate(final XmlShape shape, final Path controlXml, final Path testXml) throws IOException {
+        final Random random = new Random(shape.seed());
+
+        try (final OutputStream controlOutput = Files.newOutputStream(controlXml);
+             final OutputStream testOutput = Files.newOutputStream(testXml)) {
+            final XMLStreamWriter controlWriter = OUTPUT_FACTORY.createXMLStreamWriter(controlOutput, StandardCharsets.UTF_8.name());
+            final XMLStreamWriter testWriter = OUTPUT_FACTORY.createXMLStreamWriter(testOutput, StandardCharsets.UTF_8.name());
+            startDocument(controlWriter);
+            startDocument(testWriter);
+
+            for (int record = 0; record < shape.records(); record++) {
+                final GeneratedNode controlRecord = generateRecord(shape, record);
+                final GeneratedNode testRecord = mutate(controlRecord, shape, random);
+                controlRecord.write(controlWriter);
+                testRecord.write(testWriter);
+            }
+
+            endDocument(controlWriter);
+            endDocument(testWriter);
+        } catch (XMLStreamException e) {
+            throw new IOException("Error generating synthetic XML", e);
+        }
+    }
+
+    private static GeneratedNode generateRecord(final XmlShape shape, final int record) {
+        final GeneratedNode root = new GeneratedNode("record", String.valueOf(record), null);
+        addChildren(root, shape, 1, "r" + record);
+        return root;
+    }
+
+    private static void addChildren(final GeneratedNode parent, final XmlShape shape, final int level, final String path) {
+        for (int i = 0; i < shape.fanOut(); i++) {
+            final String childPath = path + "-" + i;
+            if (level == shape.depth()) {
+                parent.children.add(new GeneratedNode("value" + i, null, "value-" + childPath));
+            } else {
+                final GeneratedNode child = new GeneratedNode("node" + i, String.valueOf(i), null);
+                addChildren(child, shape, level + 1, childPath);
+                parent.children.add(child);
+            }
+        }
+    }
+
+    private static GeneratedNode mutate(final GeneratedNode node, final XmlShape shape, final Random random) {
+        final String text = (node.text != null && random.nextDouble() < shape.differenceRate())
+                ? node.text + "-changed"
+                : node.text;
+        final GeneratedNode mutated = new GeneratedNode(node.name, node.id, text);
+        node.children.forEach(child -> mutated.children.add(mutate(child, shape, random)));
+
+        if (mutated.children.size() > 1 && random.nextDouble() < shape.reorderRate()) {
+            final int first = random.nextInt(mutated.children.size() - 1);
+            Collections.swap(mutated.children, first, first + 1);
+        }
+        return mutated;
+    }
+
+    private static void startDocument(final XMLStreamWriter writer) throws XMLStreamException {
+        writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+        writer.writeCharacters("\n");
+        writer.writeStartElement("records");
+    }
+
+    private static void endDocument(final XMLStreamWriter writer) throws XMLStreamException {
+        writer.writeCharacters("\n");
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.flush();
+    }
+
+    private static class GeneratedNode {
+
+        private final String name;
+        private final String id;
+        private final String text;
+        private final List<GeneratedNode> children = new ArrayList<>();
+
+        private GeneratedNode(final String name, final String id, final String text) {
+            this.name = name;
+            this.id = id;
+            this.text = text;
+        }
+
+        private void write(final XMLStreamWriter writer) throws XMLStreamException {
+            writer.writeCharacters("\n");
+            writer.writeStartElement(name);
+            if (id != null) {
+                writer.writeAttribute("id", id);
+            }
+            if (text != null) {
+                writer.writeCharacters(text);
+            }
+            for (final GeneratedNode child : children) {
+                child.write(writer);
+            }
+            writer.writeEndElement();
+        }
+    }
+}
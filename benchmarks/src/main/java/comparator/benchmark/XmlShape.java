@@ -0,0 +1,13 @@
+package comparator.benchmark;
+
+public record XmlShape(int records, int depth, int fanOut, double differenceRate, double reorderRate, long seed) {
+
+    public XmlShape {
+        if (records < 1 || depth < 1 || fanOut < 1) {
+            throw new IllegalArgumentException("records, depth and fanOut must be positive");
+        }
+        if (differenceRate < 0 || differenceRate > 1 || reorderRate < 0 || reorderRate > 1) {
+            throw new IllegalArgumentException("differenceRate and reorderRate must be between 0 and 1");
+        }
+    }
+}
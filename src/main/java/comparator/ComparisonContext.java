@@ -0,0 +1,56 @@
+package comparator;
+
+import comparator.metrics.MetricsRecorder;
+import comparator.rules.ComparisonRules;
+import comparator.rules.CompiledRules;
+import org.w3c.dom.Node;
+
+import java.util.Set;
+import java.util.function.Predicate;
+
+public class ComparisonContext {
+
+    private final ComparisonRules rules;
+    private final CompiledRules compiledRules;
+    private final Predicate<Node> controlNodeFilter;
+    private final Set<Node> identicalSubtrees;
+    private final MetricsRecorder metrics;
+    private String pathToSkip;
+
+    public ComparisonContext(final ComparisonRules rules, final Predicate<Node> controlNodeFilter, final Set<Node> identicalSubtrees,
+                             final MetricsRecorder metrics) {
+        this.rules = rules;
+        this.compiledRules = CompiledRules.of(rules);
+        this.controlNodeFilter = controlNodeFilter;
+        this.identicalSubtrees = identicalSubtrees;
+        this.metrics = metrics;
+    }
+
+    public ComparisonRules getRules() {
+        return rules;
+    }
+
+    public CompiledRules getCompiledRules() {
+        return compiledRules;
+    }
+
+    public boolean isInControl(final Node node) {
+        return controlNodeFilter.test(node);
+    }
+
+    public Set<Node> getIdenticalSubtrees() {
+        return identicalSubtrees;
+    }
+
+    public MetricsRecorder getMetrics() {
+        return metrics;
+    }
+
+    public String getPathToSkip() {
+        return pathToSkip;
+    }
+
+    public void setPathToSkip(final String pathToSkip) {
+        this.pathToSkip = pathToSkip;
+    }
+}
@@ -0,0 +1,79 @@
+package comparator;
+
+import comparator.diffrence.DifferenceDetails;
+import org.w3c.dom.Node;
+import org.xmlunit.diff.Comparison;
+import org.xmlunit.diff.ComparisonType;
+
+import java.util.Map;
+
+class ComparisonDetails implements DifferenceDetails {
+
+    private static final String NO_VALUE = "NULL";
+
+    private final Comparison comparison;
+    private Map<String, String> controlNodeAttributes;
+    private Map<String, String> testNodeAttributes;
+    private boolean controlNodeAttributesResolved;
+    private boolean testNodeAttributesResolved;
+
+    ComparisonDetails(final Comparison comparison) {
+        this.comparison = comparison;
+    }
+
+    @Override
+    public String nodeXPath() {
+        if (comparison.getControlDetails().getXPath() != null) {
+            return comparison.getControlDetails().getXPath();
+        }
+        return comparison.getTestDetails().getXPath();
+    }
+
+    @Override
+    public Map<String, String> controlNodeAttributes() {
+        if (!controlNodeAttributesResolved) {
+            controlNodeAttributes = XmlUtils.getNodeAttributes(attributeOwner(comparison.getControlDetails()));
+            controlNodeAttributesResolved = true;
+        }
+        return controlNodeAttributes;
+    }
+
+    @Override
+    public Map<String, String> testNodeAttributes() {
+        if (!testNodeAttributesResolved) {
+            testNodeAttributes = XmlUtils.getNodeAttributes(attributeOwner(comparison.getTestDetails()));
+            testNodeAttributesResolved = true;
+        }
+        return testNodeAttributes;
+    }
+
+    @Override
+    public String expectedValue() {
+        return valueOf(comparison.getControlDetails());
+    }
+
+    @Override
+    public String actualValue() {
+        return valueOf(comparison.getTestDetails());
+    }
+
+    @Override
+    public String description() {
+        return comparison.getType() == ComparisonType.CHILD_NODELIST_SEQUENCE
+                ? "Different order of nodes"
+                : "Difference type: " + comparison.getType();
+    }
+
+    private Node attributeOwner(final Comparison.Detail detail) {
+        final Node target = detail.getTarget();
+        if (comparison.getType() == ComparisonType.TEXT_VALUE) {
+            return target != null ? target.getParentNode() : null;
+        }
+        return target;
+    }
+
+    private static String valueOf(final Comparison.Detail detail) {
+        final Object value = detail.getValue();
+        return (value != null) ? value.toString() : NO_VALUE;
+    }
+}
@@ -0,0 +1,6 @@
+package comparator;
+
+import comparator.similarity.SimilarityResult;
+
+public record ComparisonOutcome(SimilarityResult similarityResult, double weightedSimilarity, int differenceCount) {
+}
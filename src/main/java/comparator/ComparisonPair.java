@@ -0,0 +1,4 @@
+package comparator;
+
+public record ComparisonPair(String controlXmlPath, String testXmlPath, String outputPath) {
+}
@@ -0,0 +1,196 @@
+package comparator;
+
+import comparator.similarity.ControlNodeCounts;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ControlPathIndex {
+
+    private static final PathNode MISSING = new PathNode();
+
+    private final PathNode root = new PathNode();
+    private final Map<Node, PathNode> resolvedNodes = new IdentityHashMap<>();
+    private final Map<String, Integer> subtreeElementCounts = new LinkedHashMap<>();
+    private final String[] names;
+    private final int[] nameIds;
+    private final int[] subtreeSizes;
+    private int elementCount;
+
+    private ControlPathIndex() {
+        this(null, null, null);
+    }
+
+    private ControlPathIndex(final String[] names, final int[] nameIds, final int[] subtreeSizes) {
+        this.names = names;
+        this.nameIds = nameIds;
+        this.subtreeSizes = subtreeSizes;
+    }
+
+    public static ControlPathIndex of(final Document controlDocument) {
+        final ControlPathIndex index = new ControlPathIndex();
+        final Element rootElement = controlDocument.getDocumentElement();
+        if (rootElement == null) {
+            return index;
+        }
+
+        final PathNode rootPath = index.register(rootElement, index.root, null);
+        final String rootXPath = "/" + rootElement.getNodeName() + "[1]";
+        final Deque<PendingElement> pending = new ArrayDeque<>();
+        final Map<String, Integer> nameCounters = new HashMap<>();
+
+        for (Node child = rootElement.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                final String name = child.getNodeName();
+                final String subtreeXPath = rootXPath + "/" + name + "[" + nameCounters.merge(name, 1, Integer::sum) + "]";
+                pending.push(new PendingElement(child, index.register(child, rootPath, subtreeXPath), subtreeXPath));
+            }
+        }
+
+        while (!pending.isEmpty()) {
+            final PendingElement element = pending.pop();
+            for (Node child = element.node().getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (child.getNodeType() == Node.ELEMENT_NODE) {
+                    pending.push(new PendingElement(child, index.register(child, element.pathNode(), element.subtreeXPath()),
+                            element.subtreeXPath()));
+                }
+            }
+        }
+        return index;
+    }
+
+    public static ControlPathIndex of(final String[] names, final int[] nameIds, final int[] subtreeSizes) {
+        final ControlPathIndex index = new ControlPathIndex(names, nameIds, subtreeSizes);
+        if (subtreeSizes.length == 0) {
+            return index;
+        }
+
+        index.root.addChild(names[nameIds[0]]).ordinal = 0;
+        index.elementCount = subtreeSizes.length;
+
+        final String rootXPath = "/" + names[nameIds[0]] + "[1]";
+        final Map<String, Integer> nameCounters = new HashMap<>();
+        for (int child = 1; child < subtreeSizes[0]; child += subtreeSizes[child]) {
+            final String name = names[nameIds[child]];
+            index.subtreeElementCounts.put(rootXPath + "/" + name + "[" + nameCounters.merge(name, 1, Integer::sum) + "]",
+                    subtreeSizes[child]);
+        }
+        return index;
+    }
+
+    public ControlNodeCounts nodeCounts() {
+        return new ControlNodeCounts(elementCount, subtreeElementCounts);
+    }
+
+    public boolean contains(Node node) {
+        if (node == null) {
+            return false;
+        }
+
+        if (node.getNodeType() == Node.TEXT_NODE) {
+            node = node.getParentNode();
+        }
+
+        if (node == null || node.getNodeType() != Node.ELEMENT_NODE) {
+            return false;
+        }
+
+        return resolve(node) != MISSING;
+    }
+
+    private PathNode resolve(final Node element) {
+        final Deque<Node> unresolvedAncestors = new ArrayDeque<>();
+        Node current = element;
+
+        while (current != null && current.getNodeType() == Node.ELEMENT_NODE && !resolvedNodes.containsKey(current)) {
+            unresolvedAncestors.push(current);
+            current = current.getParentNode();
+        }
+
+        while (!unresolvedAncestors.isEmpty()) {
+            final Node ancestor = unresolvedAncestors.pop();
+            final Node parent = ancestor.getParentNode();
+            if (parent == null) {
+                resolvedNodes.put(ancestor, getChild(root, ancestor.getNodeName(), 1));
+            } else {
+                resolveChildren(parent, parent.getNodeType() == Node.DOCUMENT_NODE ? root : resolvedNodes.get(parent));
+            }
+        }
+
+        return resolvedNodes.get(element);
+    }
+
+    private PathNode register(final Node element, final PathNode parent, final String subtreeXPath) {
+        final PathNode pathNode = parent.addChild(element.getNodeName());
+        resolvedNodes.put(element, pathNode);
+        count(subtreeXPath);
+        return pathNode;
+    }
+
+    private void count(final String subtreeXPath) {
+        elementCount++;
+        if (subtreeXPath != null) {
+            subtreeElementCounts.merge(subtreeXPath, 1, Integer::sum);
+        }
+    }
+
+    private void resolveChildren(final Node parent, final PathNode parentPath) {
+        final Map<String, Integer> nameCounters = new HashMap<>();
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                final String name = child.getNodeName();
+                final int position = nameCounters.merge(name, 1, Integer::sum);
+                resolvedNodes.put(child, parentPath == MISSING ? MISSING : getChild(parentPath, name, position));
+            }
+        }
+    }
+
+    private PathNode getChild(final PathNode parent, final String name, final int position) {
+        if (parent.children == null && parent.ordinal != PathNode.NO_ORDINAL) {
+            final int end = parent.ordinal + subtreeSizes[parent.ordinal];
+            for (int child = parent.ordinal + 1; child < end; child += subtreeSizes[child]) {
+                parent.addChild(names[nameIds[child]]).ordinal = child;
+            }
+        }
+        return parent.getChild(name, position);
+    }
+
+    private record PendingElement(Node node, PathNode pathNode, String subtreeXPath) {
+    }
+
+    private static class PathNode {
+        private static final int NO_ORDINAL = -1;
+
+        private Map<String, List<PathNode>> children;
+        private int ordinal = NO_ORDINAL;
+
+        private PathNode addChild(final String name) {
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            final List<PathNode> sameNameChildren = children.computeIfAbsent(name, key -> new ArrayList<>());
+            final PathNode child = new PathNode();
+            sameNameChildren.add(child);
+            return child;
+        }
+
+        private PathNode getChild(final String name, final int position) {
+            if (children == null) {
+                return MISSING;
+            }
+            final List<PathNode> sameNameChildren = children.get(name);
+            return (sameNameChildren != null && position <= sameNameChildren.size())
+                    ? sameNameChildren.get(position - 1)
+                    : MISSING;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package comparator;
+
+import org.xmlunit.diff.ComparisonType;
+
+public enum DifferenceCategory {
+    TEXT,
+    ATTRIBUTE,
+    ORDER,
+    OTHER;
+
+    public static DifferenceCategory of(final ComparisonType comparisonType) {
+        return switch (comparisonType) {
+            case TEXT_VALUE, CHILD_LOOKUP -> TEXT;
+            case ATTR_NAME_LOOKUP, ATTR_VALUE -> ATTRIBUTE;
+            case CHILD_NODELIST_SEQUENCE -> ORDER;
+            default -> OTHER;
+        };
+    }
+}
@@ -1,171 +1,190 @@
 package comparator;
 
+import comparator.cache.ControlDocumentArtifacts;
+import comparator.fingerprint.SubtreeFingerprints;
+import comparator.fingerprint.SubtreeHasher;
+import comparator.metrics.Counter;
+import comparator.metrics.MetricsRecorder;
+import comparator.metrics.Rule;
+import comparator.metrics.Stage;
+import comparator.rules.ComparisonRules;
+import comparator.rules.CompiledRules;
+import comparator.similarity.ControlNodeCounts;
 import org.w3c.dom.Document;
-import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
-import org.xmlunit.builder.DiffBuilder;
+import org.xmlunit.builder.Input;
 import org.xmlunit.diff.*;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
-import static org.xmlunit.diff.ComparisonType.ATTR_NAME_LOOKUP;
-import static org.xmlunit.diff.ComparisonType.TEXT_VALUE;
 
 public class DifferenceFinder {
-    private static final Set<String> IGNORE_NODES = Set.of("toBeIgnored", "tooIgnored");
-    private static final Set<String> TIME_WITH_DIFFERENT_ENDING = Set.of("bikId=\"1234\"");
 
-    private static final Map<String, String> ATTRIBUTE_WITH_VALUE_TO_SKIP = Map.of(
-            "mapping", "not used",
-            "mapping1", "skipped"
-    );
+    private static final boolean IGNORE_WHITESPACE = true;
+    private static final boolean IGNORE_COMMENTS = true;
 
-    private static final Map<String, Set<String>> NODE_WITH_ATTRIBUTES_TO_SKIP = Map.of(
-            "time", Set.of("description"),
-            "time2", Set.of("description")
-    );
+    private final ComparisonContext context;
 
-    private static String pathToSkip = null;
+    private DifferenceFinder(final ComparisonContext context) {
+        this.context = context;
+    }
 
     public static List<Difference> findDifferences(final Document controlXml, final Document testXml) {
-        final Diff diff = DiffBuilder.compare(controlXml)
-                .withTest(testXml)
-                .ignoreWhitespace()
-                .ignoreComments()
-                .checkForSimilar()
-                .withNodeMatcher(new DefaultNodeMatcher(ElementSelectors.byName))
-                .withNodeFilter(node -> XmlUtils.isNodeInControlDocument(node, controlXml))
-                .withDifferenceEvaluator(DifferenceFinder::customDifferenceEvaluator)
-                .build();
+        return findDifferences(controlXml, testXml, ComparisonRules.DEFAULT);
+    }
 
+    public static List<Difference> findDifferences(final Document controlXml, final Document testXml, final ComparisonRules rules) {
         final List<Difference> differences = new ArrayList<>();
-        diff.getDifferences().forEach(differences::add);
+        findDifferences(controlXml, testXml, rules, differences::add);
 
         return differences;
     }
 
-    private static ComparisonResult customDifferenceEvaluator(final Comparison comparison, final ComparisonResult comparisonResult) {
-        if (shouldSkipPath(comparison)) {
-            return ComparisonResult.SIMILAR;
-        }
-
-        if (isAttributeIgnored(comparison)) {
-            return ComparisonResult.SIMILAR;
-        }
-
-        if (isTimeDifferenceCase(comparison)) {
-            return compareTimes(comparison);
-        }
+    public static ControlNodeCounts findDifferences(final Document controlXml, final Document testXml, final ComparisonRules rules,
+                                       final Consumer<Difference> differenceConsumer) {
+        return findDifferences(controlXml, testXml, rules, MetricsRecorder.NOOP, differenceConsumer);
+    }
 
-        return comparisonResult;
+    public static ControlNodeCounts findDifferences(final Document controlXml, final Document testXml, final ComparisonRules rules,
+                                       final MetricsRecorder metrics, final Consumer<Difference> differenceConsumer) {
+        return findDifferences(controlXml, testXml, rules, metrics, ComparisonControllers.Default, differenceConsumer);
     }
 
-    private static boolean shouldSkipPath(final Comparison comparison) {
-        if (pathToSkip == null && hasSkippingAttribute(comparison.getTestDetails().getTarget())) {
-            pathToSkip = comparison.getControlDetails().getXPath();
-        }
+    public static ControlNodeCounts findDifferences(final Document controlXml, final Document testXml, final ComparisonRules rules,
+                                       final MetricsRecorder metrics, final ComparisonController comparisonController,
+                                       final Consumer<Difference> differenceConsumer) {
+        return findDifferences(controlXml, testXml, rules, metrics, comparisonController, nodeCounts -> {
+        }, differenceConsumer);
+    }
 
-        if (pathToSkip != null) {
-            if (comparison.getTestDetails().getXPath().contains(pathToSkip) ||
-                    comparison.getControlDetails().getXPath().contains(pathToSkip)) {
-                return true;
-            }
-            pathToSkip = null;
-        }
+    public static ControlNodeCounts findDifferences(final Document controlXml, final Document testXml, final ComparisonRules rules,
+                                       final MetricsRecorder metrics, final ComparisonController comparisonController,
+                                       final Consumer<ControlNodeCounts> nodeCountsConsumer,
+                                       final Consumer<Difference> differenceConsumer) {
+        final long prepareStart = metrics.startStage();
+        final Document preparedControlXml = prepareForComparison(controlXml);
+        final Document preparedTestXml = prepareForComparison(testXml);
+        final ControlPathIndex controlPathIndex = ControlPathIndex.of(preparedControlXml);
+        final SubtreeFingerprints controlFingerprints = subtreeHasher(rules).hash(preparedControlXml);
+        metrics.endStage(Stage.PREPARE, prepareStart);
+
+        final ControlNodeCounts nodeCounts = controlPathIndex.nodeCounts();
+        nodeCountsConsumer.accept(nodeCounts);
+        findDifferences(preparedControlXml, preparedTestXml, rules, controlPathIndex, controlFingerprints, metrics,
+                comparisonController, differenceConsumer);
+        return nodeCounts;
+    }
 
-        return false;
+    public static ControlNodeCounts findPreparedDifferences(final Document preparedControlXml, final Document testXml,
+                                                            final ComparisonRules rules, final ControlDocumentArtifacts controlArtifacts,
+                                                            final MetricsRecorder metrics, final Consumer<Difference> differenceConsumer) {
+        final long prepareStart = metrics.startStage();
+        final Document preparedTestXml = prepareForComparison(testXml);
+        final ControlPathIndex controlPathIndex = controlArtifacts.pathIndex();
+        final SubtreeFingerprints controlFingerprints = controlArtifacts.fingerprints(preparedControlXml);
+        metrics.endStage(Stage.PREPARE, prepareStart);
+
+        findDifferences(preparedControlXml, preparedTestXml, rules, controlPathIndex, controlFingerprints, metrics,
+                ComparisonControllers.Default, differenceConsumer);
+        return controlPathIndex.nodeCounts();
     }
 
-    private static boolean hasSkippingAttribute(final Node node) {
-        if (node == null || !node.hasAttributes()) {
-            return false;
-        }
+    public static SubtreeHasher subtreeHasher(final ComparisonRules rules) {
+        return new SubtreeHasher(rules, IGNORE_WHITESPACE, IGNORE_COMMENTS);
+    }
 
-        final NamedNodeMap attributes = node.getAttributes();
-        for (int i = 0; i < attributes.getLength(); i++) {
-            final Node attribute = attributes.item(i);
-            final String attributeName = attribute.getNodeName();
-            final String attributeValue = attribute.getNodeValue();
+    public static Document prepareForComparison(final Document document) {
+        return XmlUtils.prepareForComparison(document, IGNORE_WHITESPACE, IGNORE_COMMENTS);
+    }
 
-            if (ATTRIBUTE_WITH_VALUE_TO_SKIP.containsKey(attributeName) &&
-                    ATTRIBUTE_WITH_VALUE_TO_SKIP.get(attributeName).equals(attributeValue)) {
-                return true;
-            }
-        }
-        return false;
+    private static void findDifferences(final Document controlXml, final Document testXml, final ComparisonRules rules,
+                                        final ControlPathIndex controlPathIndex, final SubtreeFingerprints controlFingerprints,
+                                        final MetricsRecorder metrics, final ComparisonController comparisonController,
+                                        final Consumer<Difference> differenceConsumer) {
+        final long pruneStart = metrics.startStage();
+        final CompiledRules compiledRules = CompiledRules.of(rules);
+        final KeyedNodeMatcher nodeMatcher = new KeyedNodeMatcher(rules.matchKeys());
+        final Predicate<Node> controlNodeFilter = rules.matchKeys().isEmpty()
+                ? controlPathIndex::contains
+                : nodeMatcher.controlNodeFilter(controlXml, testXml);
+        final Set<Node> identicalSubtrees = SubtreeFingerprints.findIdenticalSubtrees(controlXml, controlFingerprints,
+                testXml, subtreeHasher(rules).hash(testXml), nodeMatcher,
+                node -> controlNodeFilter.test(node) && !compiledRules.isNodeIgnored(node));
+        metrics.add(Counter.PRUNED_SUBTREES, identicalSubtrees.size());
+        metrics.endStage(Stage.PRUNE, pruneStart);
+
+        final ComparisonContext context = new ComparisonContext(rules, controlNodeFilter, identicalSubtrees, metrics);
+        final long diffStart = metrics.startStage();
+        new DifferenceFinder(context).find(controlXml, testXml, comparisonController, differenceConsumer);
+        metrics.endStage(Stage.DIFF, diffStart);
     }
 
-    private static boolean isAttributeIgnored(final Comparison comparison) {
-        if (comparison.getType() == ComparisonType.ATTR_VALUE || comparison.getType() == ATTR_NAME_LOOKUP) {
-            final Comparison.Detail controlDetails = comparison.getControlDetails();
-            final String controlParentLastNode = getLastNodeFromXPath(controlDetails.getParentXPath());
-            final String controlAttributeName = getAttributeNameFromXPath(controlDetails.getXPath());
+    private void find(final Document controlXml, final Document testXml, final ComparisonController comparisonController,
+                      final Consumer<Difference> differenceConsumer) {
+        final DOMDifferenceEngine differenceEngine = new DOMDifferenceEngine();
+        differenceEngine.setComparisonController(comparisonController);
+        differenceEngine.setNodeMatcher(new KeyedNodeMatcher(context.getRules().matchKeys()));
+        differenceEngine.setNodeFilter(this::isNodeCompared);
+        differenceEngine.setDifferenceEvaluator(this::customDifferenceEvaluator);
+        differenceEngine.addDifferenceListener((comparison, outcome) -> {
+            if (outcome == ComparisonResult.DIFFERENT) {
+                context.getMetrics().increment(Counter.DIFFERENCES);
+                differenceConsumer.accept(new Difference(comparison, outcome));
+            }
+        });
 
-            final Comparison.Detail testDetails = comparison.getTestDetails();
-            final String testParentLastNode = getLastNodeFromXPath(testDetails.getParentXPath());
-            final String testAttributeName = getAttributeNameFromXPath(testDetails.getXPath());
+        differenceEngine.compare(Input.fromDocument(controlXml).build(), Input.fromDocument(testXml).build());
+    }
 
-            return isAttributeInIgnoreList(controlParentLastNode, controlAttributeName) ||
-                    isAttributeInIgnoreList(testParentLastNode, testAttributeName);
+    private boolean isNodeCompared(final Node node) {
+        final boolean compared = context.isInControl(node) && !context.getCompiledRules().isNodeIgnored(node)
+                && !context.getIdenticalSubtrees().contains(node.getParentNode());
+        if (!compared) {
+            context.getMetrics().increment(Counter.FILTERED_NODES);
         }
-
-        return false;
+        return compared;
     }
 
-    private static boolean isTimeDifferenceCase(final Comparison comparison) {
-        if (comparison.getType() != TEXT_VALUE) {
-            return false;
-        }
+    private ComparisonResult customDifferenceEvaluator(final Comparison comparison, final ComparisonResult comparisonResult) {
+        final MetricsRecorder metrics = context.getMetrics();
+        final long evaluateStart = metrics.startStage();
+        metrics.increment(Counter.COMPARISONS);
+        try {
+            if (shouldSkipPath(comparison)) {
+                if (comparisonResult == ComparisonResult.DIFFERENT) {
+                    metrics.recordRuleHit(Rule.SKIPPED_PATH);
+                }
+                return ComparisonResult.SIMILAR;
+            }
 
-        final Node controlParent = comparison.getControlDetails().getTarget().getParentNode();
-        final NamedNodeMap attributes = controlParent.getAttributes();
+            return context.getCompiledRules().evaluate(comparison, comparisonResult, metrics);
+        } finally {
+            metrics.endStage(Stage.EVALUATE, evaluateStart);
+        }
+    }
 
-        if (attributes == null) {
-            return false;
+    private boolean shouldSkipPath(final Comparison comparison) {
+        if (context.getPathToSkip() == null && context.getCompiledRules().hasSkippingAttribute(comparison.getTestDetails().getTarget())) {
+            context.setPathToSkip(comparison.getControlDetails().getXPath());
         }
 
-        for (int i = 0; i < attributes.getLength(); i++) {
-            final Node attribute = attributes.item(i);
-            final String attributeString = attribute.toString();
-            if (TIME_WITH_DIFFERENT_ENDING.contains(attributeString)) {
+        final String pathToSkip = context.getPathToSkip();
+        if (pathToSkip != null) {
+            if (isInPath(comparison.getTestDetails().getXPath(), pathToSkip) ||
+                    isInPath(comparison.getControlDetails().getXPath(), pathToSkip)) {
                 return true;
             }
+            context.setPathToSkip(null);
         }
-        return false;
-    }
-
-    private static boolean isAttributeInIgnoreList(final String node, final String attributeName) {
-        return NODE_WITH_ATTRIBUTES_TO_SKIP.containsKey(node) &&
-                NODE_WITH_ATTRIBUTES_TO_SKIP.get(node).contains(attributeName);
-    }
-
-    private static ComparisonResult compareTimes(final Comparison comparison) {
-        String controlValue = comparison.getControlDetails().getValue().toString();
-        String testValue = comparison.getTestDetails().getValue().toString();
-
-        final int numberOfDigitsToCheck = 6;
-
-        if (controlValue.length() > numberOfDigitsToCheck && testValue.length() > numberOfDigitsToCheck) {
-            controlValue = controlValue.substring(0, numberOfDigitsToCheck);
-            testValue = testValue.substring(0, numberOfDigitsToCheck);
-        }
-
-        return controlValue.equals(testValue) ? ComparisonResult.SIMILAR : ComparisonResult.DIFFERENT;
-    }
 
-    private static String getAttributeNameFromXPath(final String nodeXPath) {
-        return nodeXPath.contains("@") ? nodeXPath.substring(nodeXPath.indexOf('@') + 1) : "";
+        return false;
     }
 
-    private static String getLastNodeFromXPath(final String nodeParentXPath) {
-        final int lastSlashIndex = nodeParentXPath.lastIndexOf('/');
-        final int firstBracketIndex = nodeParentXPath.indexOf('[', lastSlashIndex);
-
-        return (firstBracketIndex != -1)
-                ? nodeParentXPath.substring(lastSlashIndex + 1, firstBracketIndex)
-                : nodeParentXPath.substring(lastSlashIndex + 1);
+    private static boolean isInPath(final String xPath, final String path) {
+        return xPath != null && xPath.contains(path);
     }
 }
@@ -0,0 +1,8 @@
+package comparator;
+
+import comparator.diffrence.ReportDifference;
+
+public interface DifferenceSink {
+
+    void accept(DifferenceCategory category, ReportDifference difference);
+}
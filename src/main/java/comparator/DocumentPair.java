@@ -0,0 +1,6 @@
+package comparator;
+
+import org.w3c.dom.Document;
+
+public record DocumentPair(Document controlXml, Document testXml) {
+}
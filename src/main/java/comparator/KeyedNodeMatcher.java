@@ -0,0 +1,113 @@
+package comparator;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xmlunit.diff.NodeMatcher;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+public class KeyedNodeMatcher implements NodeMatcher {
+
+    private static final String ATTRIBUTE_KEY_PREFIX = "@";
+    private static final String TEXT_NODE_KEY = "#text";
+
+    private final Map<String, String> matchKeys;
+
+    public KeyedNodeMatcher(final Map<String, String> matchKeys) {
+        this.matchKeys = matchKeys;
+    }
+
+    @Override
+    public Iterable<Map.Entry<Node, Node>> match(final Iterable<Node> controlNodes, final Iterable<Node> testNodes) {
+        final Map<MatchKey, Deque<Node>> unmatchedTestNodes = new HashMap<>();
+        for (final Node testNode : testNodes) {
+            unmatchedTestNodes.computeIfAbsent(matchKeyOf(testNode), key -> new ArrayDeque<>()).add(testNode);
+        }
+
+        final List<Map.Entry<Node, Node>> matches = new ArrayList<>();
+        for (final Node controlNode : controlNodes) {
+            final Deque<Node> candidates = unmatchedTestNodes.get(matchKeyOf(controlNode));
+            if (candidates != null && !candidates.isEmpty()) {
+                matches.add(new AbstractMap.SimpleImmutableEntry<>(controlNode, candidates.poll()));
+            }
+        }
+        return matches;
+    }
+
+    public Predicate<Node> controlNodeFilter(final Document controlXml, final Document testXml) {
+        final Set<Node> matchedTestElements = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Element controlRoot = controlXml.getDocumentElement();
+        final Element testRoot = testXml.getDocumentElement();
+        if (controlRoot != null && testRoot != null && controlRoot.getNodeName().equals(testRoot.getNodeName())) {
+            matchedTestElements.add(testRoot);
+            final Deque<Map.Entry<Node, Node>> pending = new ArrayDeque<>();
+            pending.push(new AbstractMap.SimpleImmutableEntry<>(controlRoot, testRoot));
+            while (!pending.isEmpty()) {
+                final Map.Entry<Node, Node> pair = pending.pop();
+                for (final Map.Entry<Node, Node> match : match(childElements(pair.getKey()), childElements(pair.getValue()))) {
+                    matchedTestElements.add(match.getValue());
+                    pending.push(match);
+                }
+            }
+        }
+
+        return node -> {
+            final Node element = node != null && node.getNodeType() == Node.TEXT_NODE ? node.getParentNode() : node;
+            if (element == null || element.getNodeType() != Node.ELEMENT_NODE) {
+                return false;
+            }
+            return element.getOwnerDocument() != testXml || matchedTestElements.contains(element);
+        };
+    }
+
+    private static List<Node> childElements(final Node parent) {
+        final List<Node> elements = new ArrayList<>();
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                elements.add(child);
+            }
+        }
+        return elements;
+    }
+
+    private MatchKey matchKeyOf(final Node node) {
+        return switch (node.getNodeType()) {
+            case Node.ELEMENT_NODE -> new MatchKey(node.getNodeName(), identityOf((Element) node));
+            case Node.TEXT_NODE, Node.CDATA_SECTION_NODE -> new MatchKey(TEXT_NODE_KEY, null);
+            default -> new MatchKey(node.getNodeName(), null);
+        };
+    }
+
+    private String identityOf(final Element element) {
+        final String matchKey = matchKeys.get(element.getNodeName());
+        if (matchKey == null) {
+            return null;
+        }
+
+        if (matchKey.startsWith(ATTRIBUTE_KEY_PREFIX)) {
+            final String attributeName = matchKey.substring(ATTRIBUTE_KEY_PREFIX.length());
+            return element.hasAttribute(attributeName) ? element.getAttribute(attributeName) : null;
+        }
+
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE && child.getNodeName().equals(matchKey)) {
+                return child.getTextContent().trim();
+            }
+        }
+        return null;
+    }
+
+    private record MatchKey(String name, String identity) {
+    }
+}
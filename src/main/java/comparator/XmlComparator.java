@@ -1,27 +1,265 @@
 package comparator;
 
+import comparator.batch.BatchComparator;
+import comparator.batch.BatchReportGenerator;
+import comparator.batch.BatchSummary;
+import comparator.batch.ComparisonPairs;
+import comparator.cache.ControlDocumentArtifacts;
+import comparator.cache.FingerprintCache;
+import comparator.daemon.ComparisonDaemon;
+import comparator.gate.ComparisonBudget;
+import comparator.gate.GateResult;
+import comparator.gate.GatedComparator;
+import comparator.metrics.ComparisonMetrics;
+import comparator.metrics.Counter;
+import comparator.metrics.MetricsRecorder;
+import comparator.metrics.Stage;
+import comparator.report.ReportFormat;
+import comparator.report.ReportWriter;
+import comparator.rules.ComparisonRules;
+import comparator.rules.RulesLoader;
+import comparator.sharding.ShardedComparator;
+import comparator.similarity.ControlNodeCounts;
 import comparator.similarity.SimilarityCalculator;
 import comparator.similarity.SimilarityResult;
+import comparator.similarity.SimilarityTracker;
+import comparator.store.DifferenceStore;
+import comparator.streaming.StreamingComparator;
+import comparator.tree.CompactDocument;
+import comparator.watch.IncrementalComparator;
 import org.w3c.dom.Document;
 import org.xmlunit.diff.Difference;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 public class XmlComparator {
 
-    public static void main(String[] args) {
-        compare("old_format.xml", "new_format.xml", "output.txt");
+    private static final String BATCH_OPTION = "--batch";
+    private static final String MANIFEST_OPTION = "--manifest";
+    private static final String GATE_OPTION = "--gate";
+    private static final String WATCH_OPTION = "--watch";
+    private static final String DAEMON_OPTION = "--daemon";
+    private static final String CACHE_OPTION = "--cache";
+    private static final int GATE_FAILED_STATUS = 1;
+    private static final String BATCH_SUMMARY_FILE = "summary.txt";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 4 && args[0].equals(BATCH_OPTION)) {
+            final ComparisonRules rules = args.length > 4 ? RulesLoader.load(Path.of(args[4])) : ComparisonRules.DEFAULT;
+            compareBatch(ComparisonPairs.fromDirectories(Path.of(args[1]), Path.of(args[2]), Path.of(args[3])), Path.of(args[3]), rules);
+        } else if (args.length >= 6 && args[0].equals(GATE_OPTION)) {
+            final ComparisonRules rules = args.length > 6 ? RulesLoader.load(Path.of(args[6])) : ComparisonRules.DEFAULT;
+            final ComparisonBudget budget = new ComparisonBudget(Integer.parseInt(args[4]), Double.parseDouble(args[5]));
+            if (!compareWithBudget(args[1], args[2], args[3], rules, budget).verdict().isPassed()) {
+                System.exit(GATE_FAILED_STATUS);
+            }
+        } else if (args.length >= 2 && args[0].equals(DAEMON_OPTION)) {
+            final int workerCount = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+            final int queueCapacity = args.length > 3 ? Integer.parseInt(args[3]) : ComparisonDaemon.DEFAULT_QUEUE_CAPACITY;
+            serve(Path.of(args[1]), workerCount, queueCapacity);
+        } else if (args.length >= 4 && args[0].equals(WATCH_OPTION)) {
+            final String keyAttribute = args.length > 4 ? args[4] : null;
+            final ComparisonRules rules = args.length > 5 ? RulesLoader.load(Path.of(args[5])) : ComparisonRules.DEFAULT;
+            watch(args[1], args[2], args[3], rules, keyAttribute);
+        } else if (args.length >= 5 && args[0].equals(CACHE_OPTION)) {
+            final ComparisonRules rules = args.length > 5 ? RulesLoader.load(Path.of(args[5])) : ComparisonRules.DEFAULT;
+            final FingerprintCache fingerprintCache = new FingerprintCache(Path.of(args[1]), FingerprintCache.DEFAULT_MAX_SIZE_BYTES,
+                    FingerprintCache.DEFAULT_MAX_AGE);
+            compare(args[2], args[3], args[4], rules, ReportFormat.fromFileName(args[4]), fingerprintCache);
+        } else if (args.length >= 3 && args[0].equals(MANIFEST_OPTION)) {
+            final ComparisonRules rules = args.length > 3 ? RulesLoader.load(Path.of(args[3])) : ComparisonRules.DEFAULT;
+            compareBatch(ComparisonPairs.fromManifest(Path.of(args[1]), Path.of(args[2])), Path.of(args[2]), rules);
+        } else if (args.length >= 3) {
+            final ComparisonRules rules = args.length > 3 ? RulesLoader.load(Path.of(args[3])) : ComparisonRules.DEFAULT;
+            compare(args[0], args[1], args[2], rules, ReportFormat.fromFileName(args[2]));
+        } else {
+            compare("old_format.xml", "new_format.xml", "output.txt");
+        }
+    }
+
+    public static BatchSummary compareBatch(final List<ComparisonPair> pairs, final Path outputDirectory, final ComparisonRules rules)
+            throws IOException {
+        Files.createDirectories(outputDirectory);
+        final BatchSummary summary = BatchComparator.compare(pairs, rules);
+        BatchReportGenerator.generateSummary(summary, outputDirectory.resolve(BATCH_SUMMARY_FILE).toString());
+        return summary;
     }
 
     public static void compare(final String controlXmlPath, final String testXmlPath, final String outputPath) {
+        compare(controlXmlPath, testXmlPath, outputPath, ComparisonRules.DEFAULT);
+    }
+
+    public static void compare(final String controlXmlPath, final String testXmlPath, final String outputPath,
+                               final ComparisonRules rules) {
+        compare(controlXmlPath, testXmlPath, outputPath, rules, ReportFormat.TEXT);
+    }
+
+    public static SimilarityResult compare(final String controlXmlPath, final String testXmlPath, final String outputPath,
+                                           final ComparisonRules rules, final ReportFormat reportFormat) {
+        return compareDetailed(controlXmlPath, testXmlPath, outputPath, rules, reportFormat, MetricsRecorder.NOOP).similarityResult();
+    }
+
+    public static ComparisonMetrics compareWithMetrics(final String controlXmlPath, final String testXmlPath, final String outputPath,
+                                                       final ComparisonRules rules, final ReportFormat reportFormat) {
+        final ComparisonMetrics metrics = new ComparisonMetrics();
+        compareDetailed(controlXmlPath, testXmlPath, outputPath, rules, reportFormat, metrics);
+        return metrics;
+    }
+
+    public static SimilarityResult compare(final String controlXmlPath, final String testXmlPath, final String outputPath,
+                                           final ComparisonRules rules, final ReportFormat reportFormat,
+                                           final FingerprintCache fingerprintCache) {
+        return compareDetailed(controlXmlPath, testXmlPath, outputPath, rules, reportFormat, MetricsRecorder.NOOP, fingerprintCache)
+                .similarityResult();
+    }
+
+    public static ComparisonOutcome compareDetailed(final String controlXmlPath, final String testXmlPath, final String outputPath,
+                                                    final ComparisonRules rules, final ReportFormat reportFormat,
+                                                    final MetricsRecorder metrics) {
+        return compareDetailed(controlXmlPath, testXmlPath, outputPath, rules, reportFormat, metrics, null);
+    }
+
+    public static ComparisonOutcome compareDetailed(final String controlXmlPath, final String testXmlPath, final String outputPath,
+                                                    final ComparisonRules rules, final ReportFormat reportFormat,
+                                                    final MetricsRecorder metrics, final FingerprintCache fingerprintCache) {
+        try {
+            final long parseStart = metrics.startStage();
+            final DocumentPair documents = XmlUtils.parseXML(new File(controlXmlPath), new File(testXmlPath));
+            final Document controlXmlDocument = documents.controlXml();
+            final Document testXmlDocument = documents.testXml();
+            metrics.endStage(Stage.PARSE, parseStart);
+
+            try (final ReportWriter reportWriter = reportFormat.open(Path.of(outputPath))) {
+                final SimilarityTracker similarityTracker = new SimilarityTracker((category, difference) -> {
+                    final long reportStart = metrics.startStage();
+                    reportWriter.accept(category, difference);
+                    metrics.endStage(Stage.REPORT, reportStart);
+                });
+                final ControlNodeCounts nodeCounts = findDifferences(Path.of(controlXmlPath), controlXmlDocument, testXmlDocument, rules,
+                        metrics, fingerprintCache, difference -> {
+                            final long analyzeStart = metrics.startStage();
+                            DifferenceAnalyzer.analyzeDifference(difference, similarityTracker);
+                            metrics.endStage(Stage.ANALYZE, analyzeStart);
+                        });
+
+                final SimilarityResult similarityResult = similarityTracker.toSimilarityResult(nodeCounts);
+                metrics.add(Counter.CONTROL_NODES, similarityResult.controlXmlNodeCount());
+
+                final long reportStart = metrics.startStage();
+                reportWriter.finish(similarityResult);
+                metrics.endStage(Stage.REPORT, reportStart);
+                metrics.add(Counter.BYTES_WRITTEN, reportWriter.getBytesWritten());
+                return new ComparisonOutcome(similarityResult, similarityTracker.toWeightedSimilarity(nodeCounts),
+                        countDifferences(similarityTracker));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Something went wrong with reading xml file", e);
+        }
+    }
+
+    private static ControlNodeCounts findDifferences(final Path controlXmlPath, final Document controlXmlDocument,
+                                                     final Document testXmlDocument, final ComparisonRules rules,
+                                                     final MetricsRecorder metrics, final FingerprintCache fingerprintCache,
+                                                     final Consumer<Difference> differenceConsumer) throws IOException {
+        if (fingerprintCache == null) {
+            return DifferenceFinder.findDifferences(controlXmlDocument, testXmlDocument, rules, metrics, differenceConsumer);
+        }
+
+        final long prepareStart = metrics.startStage();
+        final Document preparedControlXml = DifferenceFinder.prepareForComparison(controlXmlDocument);
+        final ControlDocumentArtifacts controlArtifacts = fingerprintCache.getOrCompute(controlXmlPath, rules,
+                () -> ControlDocumentArtifacts.of(preparedControlXml, DifferenceFinder.subtreeHasher(rules)));
+        metrics.endStage(Stage.PREPARE, prepareStart);
+
+        return DifferenceFinder.findPreparedDifferences(preparedControlXml, testXmlDocument, rules, controlArtifacts, metrics,
+                differenceConsumer);
+    }
+
+    private static int countDifferences(final SimilarityTracker similarityTracker) {
+        int differenceCount = 0;
+        for (final DifferenceCategory category : DifferenceCategory.values()) {
+            differenceCount += similarityTracker.getMismatchCount(category);
+        }
+        return differenceCount;
+    }
+
+    public static GateResult compareWithBudget(final String controlXmlPath, final String testXmlPath, final String outputPath,
+                                               final ComparisonRules rules, final ComparisonBudget budget) {
+        try {
+            final DocumentPair documents = XmlUtils.parseXML(new File(controlXmlPath), new File(testXmlPath));
+
+            final GateResult gateResult = GatedComparator.compare(documents.controlXml(), documents.testXml(), rules, budget);
+            ReportGenerator.generateReport(gateResult.differenceResult(), gateResult.similarityResult(), outputPath,
+                    ReportFormat.fromFileName(outputPath));
+            return gateResult;
+        } catch (IOException e) {
+            throw new RuntimeException("Something went wrong with reading xml file", e);
+        }
+    }
+
+    public static void serve(final Path socketPath, final int workerCount, final int queueCapacity) throws IOException {
+        final ComparisonDaemon daemon = ComparisonDaemon.start(socketPath, workerCount, queueCapacity);
+        final Thread shutdownHook = new Thread(() -> {
+            try {
+                daemon.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error during stopping comparison daemon", e);
+            }
+        }, "comparison-daemon-shutdown-hook");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        try {
+            daemon.awaitTermination();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            daemon.close();
+        }
+    }
+
+    public static void watch(final String controlXmlPath, final String testXmlPath, final String outputPath,
+                             final ComparisonRules rules, final String keyAttribute) throws IOException {
+        final IncrementalComparator incrementalComparator = new IncrementalComparator(Path.of(controlXmlPath), Path.of(testXmlPath),
+                Path.of(outputPath), rules, keyAttribute);
         try {
-            final Document controlXmlDocument = XmlUtils.parseXML(new File(controlXmlPath));
-            final Document testXmlDocument = XmlUtils.parseXML(new File(testXmlPath));
+            incrementalComparator.watch(IncrementalComparator.DEFAULT_DEBOUNCE, result -> {
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-            final List<Difference> differences = DifferenceFinder.findDifferences(controlXmlDocument, testXmlDocument);
-            final DifferenceResult differenceResult = DifferenceAnalyzer.analyzeDifferences(differences);
+    public static void compareStreaming(final String controlXmlPath, final String testXmlPath, final String outputPath) {
+        try (final ReportWriter reportWriter = ReportFormat.TEXT.open(Path.of(outputPath))) {
+            final SimilarityTracker similarityTracker = new SimilarityTracker(reportWriter);
+            final int controlXmlNodeCount = StreamingComparator.compare(new File(controlXmlPath), new File(testXmlPath),
+                    ComparisonRules.DEFAULT, StreamingComparator.DEFAULT_WINDOW_SIZE, similarityTracker);
+
+            reportWriter.finish(SimilarityCalculator.calculate(controlXmlNodeCount,
+                    similarityTracker.getMismatchCount(DifferenceCategory.TEXT)));
+        } catch (IOException e) {
+            throw new RuntimeException("Something went wrong with reading xml file", e);
+        }
+    }
+
+    public static void compareCompact(final String controlXmlPath, final String testXmlPath, final String outputPath) {
+        try {
+            final CompactDocument controlXmlDocument = CompactDocument.parse(new File(controlXmlPath));
+            final CompactDocument testXmlDocument = CompactDocument.parse(new File(testXmlPath));
+
+            final DifferenceStore differenceStore = new DifferenceStore();
+            StreamingComparator.compare(controlXmlDocument, testXmlDocument, ComparisonRules.DEFAULT, differenceStore);
+            final DifferenceResult differenceResult = differenceStore.toDifferenceResult();
 
             final SimilarityResult similarityResult = SimilarityCalculator.calculate(controlXmlDocument, differenceResult.textDifferences().size());
             ReportGenerator.generateReport(differenceResult, similarityResult, outputPath);
@@ -29,4 +267,43 @@ public class XmlComparator {
             throw new RuntimeException("Something went wrong with reading xml file", e);
         }
     }
+
+    public static void compareSharded(final String controlXmlPath, final String testXmlPath, final String outputPath,
+                                      final String keyAttribute) {
+        try {
+            final DocumentPair documents = XmlUtils.parseXML(new File(controlXmlPath), new File(testXmlPath));
+            final Document controlXmlDocument = documents.controlXml();
+            final Document testXmlDocument = documents.testXml();
+
+            final DifferenceResult differenceResult = ShardedComparator.compare(controlXmlDocument, testXmlDocument,
+                    ComparisonRules.DEFAULT, keyAttribute, ForkJoinPool.commonPool());
+
+            final SimilarityResult similarityResult = SimilarityCalculator.calculate(controlXmlDocument, differenceResult.textDifferences().size());
+            ReportGenerator.generateReport(differenceResult, similarityResult, outputPath);
+        } catch (IOException e) {
+            throw new RuntimeException("Something went wrong with reading xml file", e);
+        }
+    }
+
+    public static void compareAll(final List<ComparisonPair> pairs) {
+        final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            compareAll(pairs, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public static void compareAll(final List<ComparisonPair> pairs, final ExecutorService executor) {
+        final CompletableFuture<?>[] comparisons = pairs.stream()
+                .map(pair -> CompletableFuture.runAsync(
+                        () -> compare(pair.controlXmlPath(), pair.testXmlPath(), pair.outputPath()), executor))
+                .toArray(CompletableFuture[]::new);
+
+        try {
+            CompletableFuture.allOf(comparisons).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Comparison of xml pairs failed", e.getCause());
+        }
+    }
 }
@@ -1,107 +1,224 @@
 package comparator;
 
+import org.w3c.dom.CharacterData;
 import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import org.w3c.dom.ProcessingInstruction;
+import org.w3c.dom.Text;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpression;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
+import comparator.io.XmlSources;
+
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public enum XmlUtils {
     ;
-    private static final DocumentBuilderFactory DOCUMENT_FACTORY = DocumentBuilderFactory.newInstance();
+    private static final String LOAD_EXTERNAL_DTD_FEATURE = "http://apache.org/xml/features/nonvalidating/load-external-dtd";
+    private static final String DEFER_NODE_EXPANSION_FEATURE = "http://apache.org/xml/features/dom/defer-node-expansion";
+
+    private static final DocumentBuilderFactory DOCUMENT_FACTORY = createDocumentFactory();
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDERS = ThreadLocal.withInitial(XmlUtils::newDocumentBuilder);
+    private static final int PARSE_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final AtomicInteger PARSE_THREAD_NUMBER = new AtomicInteger();
+    private static final ExecutorService PARSE_EXECUTOR = new ThreadPoolExecutor(PARSE_THREADS, PARSE_THREADS, 0L,
+            TimeUnit.MILLISECONDS, new SynchronousQueue<>(), runnable -> {
+                final Thread thread = new Thread(runnable, "xml-parser-" + PARSE_THREAD_NUMBER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
 
     public static Document parseXML(final File xmlFile) throws IOException {
+        return parseXML(xmlFile.toPath());
+    }
+
+    public static Document parseXML(final Path xmlFile) throws IOException {
+        try (final InputStream input = XmlSources.open(xmlFile)) {
+            return parseXML(input, xmlFile.toUri().toString());
+        }
+    }
+
+    public static Document parseXML(final InputStream xmlInput, final String systemId) throws IOException {
+        final InputSource inputSource = new InputSource(xmlInput);
+        inputSource.setSystemId(systemId);
+
+        final DocumentBuilder documentBuilder = DOCUMENT_BUILDERS.get();
         try {
-            final DocumentBuilder documentBuilder = DOCUMENT_FACTORY.newDocumentBuilder();
-            return documentBuilder.parse(xmlFile);
-        } catch (ParserConfigurationException | SAXException e) {
+            return documentBuilder.parse(inputSource);
+        } catch (SAXException e) {
             throw new IOException("Error parsing XML file", e);
+        } finally {
+            documentBuilder.reset();
         }
     }
 
-    public static boolean isNodeInControlDocument(Node node, final Document controlDocument) {
-        if (node == null || controlDocument == null) {
-            return false;
+    public static DocumentPair parseXML(final File controlXmlFile, final File testXmlFile) throws IOException {
+        return parseXML(controlXmlFile.toPath(), testXmlFile.toPath());
+    }
+
+    public static DocumentPair parseXML(final Path controlXmlFile, final Path testXmlFile) throws IOException {
+        final Future<Document> testXmlDocument = PARSE_EXECUTOR.submit(() -> parseXML(testXmlFile));
+        try {
+            final Document controlXmlDocument = parseXML(controlXmlFile);
+            return new DocumentPair(controlXmlDocument, testXmlDocument.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while parsing XML file", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Error parsing XML file", e.getCause());
+        } finally {
+            testXmlDocument.cancel(true);
         }
+    }
 
-        if (node.getNodeType() == Node.TEXT_NODE) {
-            node = node.getParentNode();
+    public static Document prepareForComparison(final Document document, final boolean ignoreWhitespace, final boolean ignoreComments) {
+        final Document prepared = (Document) document.cloneNode(true);
+        prepared.normalize();
+
+        final List<Node> nodesToRemove = new ArrayList<>();
+        final List<Node> cdataSections = new ArrayList<>();
+        final Deque<Node> pending = new ArrayDeque<>();
+        pending.push(prepared);
+
+        while (!pending.isEmpty()) {
+            final Node node = pending.pop();
+            for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (ignoreWhitespace && (child instanceof CharacterData || child instanceof ProcessingInstruction)) {
+                    child.setNodeValue(child.getNodeValue().trim());
+                }
+
+                if (ignoreWhitespace && child instanceof Text text && text.getData().isEmpty()) {
+                    nodesToRemove.add(child);
+                } else if (ignoreComments && child.getNodeType() == Node.COMMENT_NODE) {
+                    nodesToRemove.add(child);
+                } else if (ignoreComments && child.getNodeType() == Node.CDATA_SECTION_NODE) {
+                    cdataSections.add(child);
+                } else if (child.hasChildNodes()) {
+                    pending.push(child);
+                }
+            }
         }
 
-        final String nodeXPath = getXPath(node);
+        nodesToRemove.forEach(node -> node.getParentNode().removeChild(node));
+        cdataSections.forEach(node -> node.getParentNode().replaceChild(prepared.createTextNode(node.getNodeValue()), node));
+        if (ignoreComments) {
+            prepared.normalize();
+        }
+        return prepared;
+    }
 
-        return existsAtXPath(controlDocument, nodeXPath);
+    public static Document newDocument() {
+        return DOCUMENT_BUILDERS.get().newDocument();
     }
 
-    private static String getXPath(Node node) {
-        final StringBuilder xpath = new StringBuilder();
+    public static Map<String, String> getNodeAttributes(final Node node) {
+        if (node == null || !node.hasAttributes()) {
+            return null;
+        }
+
+        final NamedNodeMap attributes = node.getAttributes();
+        final Map<String, String> attributeMap = new HashMap<>();
 
-        while (node != null && node.getNodeType() == Node.ELEMENT_NODE) {
-            final int index = getNodeIndex(node);
-            xpath.insert(0, "/" + node.getNodeName() + "[" + index + "]");
-            node = node.getParentNode();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            final Node attribute = attributes.item(i);
+            attributeMap.put(attribute.getNodeName(), attribute.getNodeValue());
         }
 
-        return xpath.toString();
+        return attributeMap;
     }
 
-    private static int getNodeIndex(final Node node) {
-        final Node parent = node.getParentNode();
-        if (parent == null) {
-            return 1;
+    public static List<Node> getElementsInDocumentOrder(final Document document) {
+        final List<Node> elements = new ArrayList<>();
+        final Deque<Node> pending = new ArrayDeque<>();
+        if (document.getDocumentElement() != null) {
+            pending.push(document.getDocumentElement());
         }
 
-        final NodeList siblings = parent.getChildNodes();
-        int index = 0;
-
-        for (int i = 0; i < siblings.getLength(); i++) {
-            final Node sibling = siblings.item(i);
-            if (sibling.getNodeType() == Node.ELEMENT_NODE && sibling.getNodeName().equals(node.getNodeName())) {
-                index++;
-            }
-            if (sibling == node) {
-                return index;
+        while (!pending.isEmpty()) {
+            final Node element = pending.pop();
+            elements.add(element);
+            for (Node child = element.getLastChild(); child != null; child = child.getPreviousSibling()) {
+                if (child.getNodeType() == Node.ELEMENT_NODE) {
+                    pending.push(child);
+                }
             }
         }
-        return 1;
+        return elements;
     }
 
-    private static boolean existsAtXPath(final Document controlDocument, final String xpath) {
-        try {
-            final XPathExpression xPathExpression = XPathFactory.newInstance().newXPath().compile(xpath);
-            return xPathExpression.evaluate(controlDocument, XPathConstants.NODE) != null;
-        } catch (XPathExpressionException e) {
-            return false;
+    public static int countNodes(final Document document) {
+        final Node rootElement = document.getDocumentElement();
+        if (rootElement == null) {
+            return 0;
         }
-    }
 
-    public static int countNodes(final Document document) {
-        return countElementsRecursively(document.getDocumentElement());
+        int count = 0;
+        Node node = rootElement;
+        while (node != null) {
+            count++;
+            final Node firstChildElement = nextElement(node.getFirstChild());
+            if (firstChildElement != null) {
+                node = firstChildElement;
+                continue;
+            }
+
+            Node nextElement = null;
+            while (node != rootElement && (nextElement = nextElement(node.getNextSibling())) == null) {
+                node = node.getParentNode();
+            }
+            node = (node == rootElement) ? null : nextElement;
+        }
+        return count;
     }
 
-    private static int countElementsRecursively(final Node node) {
-        if (node == null) {
-            return 0;
+    private static Node nextElement(Node node) {
+        while (node != null && node.getNodeType() != Node.ELEMENT_NODE) {
+            node = node.getNextSibling();
         }
+        return node;
+    }
 
-        int count = 1;
-        final NodeList children = node.getChildNodes();
+    private static DocumentBuilderFactory createDocumentFactory() {
+        final DocumentBuilderFactory documentFactory = DocumentBuilderFactory.newInstance();
+        try {
+            documentFactory.setFeature(LOAD_EXTERNAL_DTD_FEATURE, false);
+            documentFactory.setFeature(DEFER_NODE_EXPANSION_FEATURE, false);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Cannot configure XML parser", e);
+        }
+        return documentFactory;
+    }
 
-        for (int i = 0; i < children.getLength(); i++) {
-            final Node child = children.item(i);
-            if (child.getNodeType() == Node.ELEMENT_NODE) {
-                count += countElementsRecursively(child);
+    private static DocumentBuilder newDocumentBuilder() {
+        try {
+            synchronized (DOCUMENT_FACTORY) {
+                return DOCUMENT_FACTORY.newDocumentBuilder();
             }
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Cannot create XML parser", e);
         }
-        return count;
     }
 }
@@ -0,0 +1,112 @@
+package comparator.aggregate;
+
+import comparator.DifferenceCategory;
+import comparator.DifferenceSink;
+import comparator.diffrence.ReportDifference;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+public class DifferenceAggregator implements DifferenceSink {
+
+    public static final int DEFAULT_MAX_PATTERNS = 1024;
+    public static final int DEFAULT_SAMPLES_PER_PATTERN = 3;
+
+    private static final Comparator<PatternCounter> BY_COUNT = Comparator
+            .comparingLong((PatternCounter counter) -> counter.count)
+            .thenComparingLong(counter -> counter.sequence);
+
+    private final int maxPatterns;
+    private final int samplesPerPattern;
+    private final Map<DifferencePattern, PatternCounter> counters = new HashMap<>();
+    private final TreeSet<PatternCounter> countersByCount = new TreeSet<>(BY_COUNT);
+    private boolean evicting;
+    private long nextSequence;
+    private long differenceCount;
+
+    public DifferenceAggregator() {
+        this(DEFAULT_MAX_PATTERNS, DEFAULT_SAMPLES_PER_PATTERN);
+    }
+
+    public DifferenceAggregator(final int maxPatterns, final int samplesPerPattern) {
+        if (maxPatterns < 1) {
+            throw new IllegalArgumentException("At least one pattern must be tracked");
+        }
+        this.maxPatterns = maxPatterns;
+        this.samplesPerPattern = samplesPerPattern;
+    }
+
+    @Override
+    public void accept(final DifferenceCategory category, final ReportDifference difference) {
+        differenceCount++;
+        final DifferencePattern pattern = DifferencePattern.of(category, difference);
+
+        PatternCounter counter = counters.get(pattern);
+        if (counter != null) {
+            if (evicting) {
+                countersByCount.remove(counter);
+            }
+            counter.count++;
+        } else if (counters.size() < maxPatterns) {
+            counter = new PatternCounter(pattern, 1, 0, nextSequence++);
+            counters.put(pattern, counter);
+        } else {
+            if (!evicting) {
+                countersByCount.addAll(counters.values());
+                evicting = true;
+            }
+            final PatternCounter evicted = countersByCount.pollFirst();
+            counters.remove(evicted.pattern);
+            counter = new PatternCounter(pattern, evicted.count + 1, evicted.count, nextSequence++);
+            counters.put(pattern, counter);
+        }
+        if (evicting) {
+            countersByCount.add(counter);
+        }
+
+        if (counter.samples.size() < samplesPerPattern) {
+            counter.samples.add(difference.getNodeXPath());
+        }
+    }
+
+    public long getDifferenceCount() {
+        return differenceCount;
+    }
+
+    public int getPatternCount() {
+        return counters.size();
+    }
+
+    public List<PatternSummary> toPatternSummaries() {
+        final List<PatternCounter> sortedCounters = new ArrayList<>(counters.values());
+        sortedCounters.sort(Comparator.comparingLong((PatternCounter counter) -> -counter.count)
+                .thenComparingLong(counter -> counter.sequence));
+
+        final List<PatternSummary> summaries = new ArrayList<>(sortedCounters.size());
+        for (final PatternCounter counter : sortedCounters) {
+            summaries.add(new PatternSummary(counter.pattern, counter.count, counter.overcount,
+                    Collections.unmodifiableList(new ArrayList<>(counter.samples))));
+        }
+        return summaries;
+    }
+
+    private static class PatternCounter {
+        private final DifferencePattern pattern;
+        private final long overcount;
+        private final long sequence;
+        private final List<String> samples = new ArrayList<>();
+        private long count;
+
+        private PatternCounter(final DifferencePattern pattern, final long count, final long overcount, final long sequence) {
+            this.pattern = pattern;
+            this.count = count;
+            this.overcount = overcount;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package comparator.aggregate;
+
+import comparator.DifferenceCategory;
+import comparator.diffrence.NonTextDifference;
+import comparator.diffrence.ReportDifference;
+import comparator.diffrence.TextDifference;
+
+public record DifferencePattern(DifferenceCategory category, String xPathPattern, String signature) {
+
+    private static final int MAX_SIGNATURE_VALUE_LENGTH = 64;
+
+    public static DifferencePattern of(final DifferenceCategory category, final ReportDifference difference) {
+        return new DifferencePattern(category, xPathPatternOf(difference.getNodeXPath()), signatureOf(difference));
+    }
+
+    static String xPathPatternOf(final String xPath) {
+        if (xPath == null) {
+            return null;
+        }
+
+        final StringBuilder pattern = new StringBuilder(xPath.length());
+        int i = 0;
+        while (i < xPath.length()) {
+            final char character = xPath.charAt(i);
+            if (character == '[') {
+                int end = i + 1;
+                while (end < xPath.length() && Character.isDigit(xPath.charAt(end))) {
+                    end++;
+                }
+                if (end > i + 1 && end < xPath.length() && xPath.charAt(end) == ']') {
+                    i = end + 1;
+                    continue;
+                }
+            }
+            pattern.append(character);
+            i++;
+        }
+        return pattern.toString();
+    }
+
+    private static String signatureOf(final ReportDifference difference) {
+        if (difference instanceof TextDifference textDifference) {
+            return valueSignatureOf(textDifference.getExpectedValue()) + " -> " + valueSignatureOf(textDifference.getActualValue());
+        }
+        if (difference instanceof NonTextDifference nonTextDifference) {
+            return nonTextDifference.getDescription();
+        }
+        return difference.getClass().getSimpleName();
+    }
+
+    private static String valueSignatureOf(final String value) {
+        if (value == null) {
+            return "null";
+        }
+
+        final StringBuilder signature = new StringBuilder(Math.min(value.length(), MAX_SIGNATURE_VALUE_LENGTH));
+        for (int i = 0; i < value.length() && signature.length() < MAX_SIGNATURE_VALUE_LENGTH; i++) {
+            final char character = value.charAt(i);
+            if (!Character.isDigit(character)) {
+                signature.append(character);
+            } else if (signature.isEmpty() || signature.charAt(signature.length() - 1) != '#') {
+                signature.append('#');
+            }
+        }
+        if (signature.length() >= MAX_SIGNATURE_VALUE_LENGTH) {
+            signature.append("...");
+        }
+        return signature.toString();
+    }
+}
@@ -0,0 +1,6 @@
+package comparator.aggregate;
+
+import java.util.List;
+
+public record PatternSummary(DifferencePattern pattern, long count, long maxOvercount, List<String> sampleXPaths) {
+}
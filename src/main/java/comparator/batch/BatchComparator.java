@@ -0,0 +1,71 @@
+package comparator.batch;
+
+import comparator.ComparisonOutcome;
+import comparator.ComparisonPair;
+import comparator.XmlComparator;
+import comparator.metrics.ComparisonMetrics;
+import comparator.metrics.Stage;
+import comparator.report.ReportFormat;
+import comparator.rules.ComparisonRules;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class BatchComparator {
+
+    public static BatchSummary compare(final List<ComparisonPair> pairs, final ComparisonRules rules) {
+        final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            return compare(pairs, rules, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    public static BatchSummary compare(final List<ComparisonPair> pairs, final ComparisonRules rules, final ExecutorService executor) {
+        final long start = System.nanoTime();
+
+        final List<CompletableFuture<PairResult>> comparisons = pairs.stream()
+                .map(pair -> CompletableFuture.supplyAsync(() -> compare(pair, rules), executor))
+                .toList();
+
+        final List<PairResult> results = comparisons.stream()
+                .map(CompletableFuture::join)
+                .toList();
+        return new BatchSummary(results, System.nanoTime() - start);
+    }
+
+    private static PairResult compare(final ComparisonPair pair, final ComparisonRules rules) {
+        final ComparisonMetrics metrics = new ComparisonMetrics();
+        final long start = System.nanoTime();
+        try {
+            final Path outputPath = Path.of(pair.outputPath());
+            if (outputPath.getParent() != null) {
+                Files.createDirectories(outputPath.getParent());
+            }
+
+            final ComparisonOutcome outcome = XmlComparator.compareDetailed(pair.controlXmlPath(), pair.testXmlPath(), pair.outputPath(),
+                    rules, ReportFormat.fromFileName(pair.outputPath()), metrics);
+            final long parseNanos = metrics.getStageNanos(Stage.PARSE);
+            return new PairResult(pair, outcome.similarityResult(), outcome.weightedSimilarity(), outcome.differenceCount(),
+                    parseNanos, System.nanoTime() - start - parseNanos, null);
+        } catch (IOException | RuntimeException e) {
+            final long elapsedNanos = System.nanoTime() - start;
+            final long parseNanos = metrics.getStageNanos(Stage.PARSE);
+            return parseNanos == 0
+                    ? failed(pair, elapsedNanos, 0, e)
+                    : failed(pair, parseNanos, elapsedNanos - parseNanos, e);
+        }
+    }
+
+    private static PairResult failed(final ComparisonPair pair, final long parseNanos, final long compareNanos, final Exception exception) {
+        final Throwable failure = exception.getCause() instanceof IOException ? exception.getCause() : exception;
+        final String message = failure.getMessage() != null ? failure.getMessage() : failure.getClass().getSimpleName();
+        return new PairResult(pair, null, Double.NaN, 0, parseNanos, compareNanos, message);
+    }
+}
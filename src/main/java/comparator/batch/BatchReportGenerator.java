@@ -0,0 +1,45 @@
+package comparator.batch;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class BatchReportGenerator {
+
+    private static final int SLOWEST_PAIRS_LIMIT = 10;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    public static void generateSummary(final BatchSummary summary, final String outputFilePath) {
+        try (final PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Path.of(outputFilePath), StandardCharsets.UTF_8))) {
+            writer.println("============ XML BATCH COMPARISON ============");
+            writer.println("Pairs: " + summary.results().size());
+            writer.println("Failed: " + summary.failedCount());
+            writer.printf("Average similarity: %.2f%%%n", summary.averageSimilarity());
+            writer.printf("Elapsed: %.1f ms%n", summary.elapsedNanos() / NANOS_PER_MILLI);
+
+            writer.println();
+            writer.println("=== Similarity per file ===");
+            for (final PairResult result : summary.results()) {
+                if (result.isFailed()) {
+                    writer.printf("FAILED   %s -> %s: %s%n", result.pair().controlXmlPath(), result.pair().testXmlPath(), result.failure());
+                } else {
+                    writer.printf("%7.2f%%  %s -> %s (weighted: %.2f%%, differences: %d, report: %s)%n", result.similarityResult().similarity(),
+                            result.pair().controlXmlPath(), result.pair().testXmlPath(), result.weightedSimilarity(), result.differenceCount(),
+                            result.pair().outputPath());
+                }
+            }
+
+            writer.println();
+            writer.println("=== Slowest pairs ===");
+            for (final PairResult result : summary.slowestPairs(SLOWEST_PAIRS_LIMIT)) {
+                writer.printf("%10.1f ms (parse %.1f ms, compare %.1f ms)  %s -> %s%n", result.totalNanos() / NANOS_PER_MILLI,
+                        result.parseNanos() / NANOS_PER_MILLI, result.compareNanos() / NANOS_PER_MILLI,
+                        result.pair().controlXmlPath(), result.pair().testXmlPath());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error during generating batch summary", e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package comparator.batch;
+
+import java.util.Comparator;
+import java.util.List;
+
+public record BatchSummary(List<PairResult> results, long elapsedNanos) {
+
+    public long failedCount() {
+        return results.stream().filter(PairResult::isFailed).count();
+    }
+
+    public double averageSimilarity() {
+        return results.stream()
+                .filter(result -> !result.isFailed())
+                .mapToDouble(result -> result.similarityResult().similarity())
+                .average()
+                .orElse(Double.NaN);
+    }
+
+    public List<PairResult> slowestPairs(final int limit) {
+        return results.stream()
+                .sorted(Comparator.comparingLong(PairResult::totalNanos).reversed())
+                .limit(limit)
+                .toList();
+    }
+}
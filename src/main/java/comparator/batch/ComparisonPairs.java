@@ -0,0 +1,80 @@
+package comparator.batch;
+
+import comparator.ComparisonPair;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public enum ComparisonPairs {
+    ;
+    private static final List<String> XML_EXTENSIONS = List.of(".xml", ".xml.gz", ".zip");
+    private static final String REPORT_EXTENSION = ".txt";
+    private static final String MANIFEST_COMMENT = "#";
+    private static final String MANIFEST_SEPARATOR = "\\s*[,\\t]\\s*";
+
+    public static List<ComparisonPair> fromDirectories(final Path controlDirectory, final Path testDirectory,
+                                                       final Path outputDirectory) throws IOException {
+        final List<Path> controlFiles;
+        try (final Stream<Path> files = Files.walk(controlDirectory)) {
+            controlFiles = files.filter(Files::isRegularFile)
+                    .filter(file -> xmlExtensionOf(file.getFileName().toString()) != null)
+                    .sorted()
+                    .toList();
+        }
+
+        final List<ComparisonPair> pairs = new ArrayList<>(controlFiles.size());
+        for (final Path controlFile : controlFiles) {
+            final Path relativePath = controlDirectory.relativize(controlFile);
+            pairs.add(new ComparisonPair(controlFile.toString(), testDirectory.resolve(relativePath).toString(),
+                    reportPath(outputDirectory, relativePath).toString()));
+        }
+        return pairs;
+    }
+
+    public static List<ComparisonPair> fromManifest(final Path manifest, final Path outputDirectory) throws IOException {
+        final Path baseDirectory = manifest.toAbsolutePath().getParent();
+        final List<ComparisonPair> pairs = new ArrayList<>();
+
+        int lineNumber = 0;
+        for (final String line : Files.readAllLines(manifest)) {
+            lineNumber++;
+            final String entry = line.strip();
+            if (entry.isEmpty() || entry.startsWith(MANIFEST_COMMENT)) {
+                continue;
+            }
+
+            final String[] columns = entry.split(MANIFEST_SEPARATOR);
+            if (columns.length < 2 || columns.length > 3) {
+                throw new IOException("Invalid manifest entry at line " + lineNumber + ": " + line);
+            }
+
+            final Path controlFile = baseDirectory.resolve(columns[0]);
+            final Path outputFile = columns.length == 3
+                    ? outputDirectory.resolve(columns[2])
+                    : reportPath(outputDirectory, Path.of(String.format("%05d-%s", lineNumber, controlFile.getFileName())));
+            pairs.add(new ComparisonPair(controlFile.toString(), baseDirectory.resolve(columns[1]).toString(), outputFile.toString()));
+        }
+        return pairs;
+    }
+
+    private static Path reportPath(final Path outputDirectory, final Path relativeXmlPath) {
+        final String fileName = relativeXmlPath.getFileName().toString();
+        final String xmlExtension = xmlExtensionOf(fileName);
+        final String baseName = xmlExtension != null
+                ? fileName.substring(0, fileName.length() - xmlExtension.length())
+                : fileName;
+        return outputDirectory.resolve(relativeXmlPath).resolveSibling(baseName + REPORT_EXTENSION);
+    }
+
+    private static String xmlExtensionOf(final String fileName) {
+        final String lowerCaseFileName = fileName.toLowerCase();
+        return XML_EXTENSIONS.stream()
+                .filter(lowerCaseFileName::endsWith)
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -0,0 +1,16 @@
+package comparator.batch;
+
+import comparator.ComparisonPair;
+import comparator.similarity.SimilarityResult;
+
+public record PairResult(ComparisonPair pair, SimilarityResult similarityResult, double weightedSimilarity, int differenceCount,
+                         long parseNanos, long compareNanos, String failure) {
+
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    public long totalNanos() {
+        return parseNanos + compareNanos;
+    }
+}
@@ -0,0 +1,56 @@
+package comparator.cache;
+
+import comparator.ControlPathIndex;
+import comparator.XmlUtils;
+import comparator.fingerprint.SubtreeFingerprints;
+import comparator.fingerprint.SubtreeHasher;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public record ControlDocumentArtifacts(String[] names, int[] nameIds, int[] subtreeSizes, long[] subtreeHashes) {
+
+    public static ControlDocumentArtifacts of(final Document controlXml, final SubtreeHasher subtreeHasher) {
+        final List<Node> elements = XmlUtils.getElementsInDocumentOrder(controlXml);
+        final Map<Node, Integer> ordinals = new IdentityHashMap<>(elements.size() * 2);
+        final Map<String, Integer> nameTable = new HashMap<>();
+        final List<String> names = new ArrayList<>();
+        final int[] nameIds = new int[elements.size()];
+        final int[] parents = new int[elements.size()];
+        final int[] subtreeSizes = new int[elements.size()];
+
+        for (int i = 0; i < elements.size(); i++) {
+            final Node element = elements.get(i);
+            ordinals.put(element, i);
+            nameIds[i] = nameTable.computeIfAbsent(element.getNodeName(), name -> {
+                names.add(name);
+                return names.size() - 1;
+            });
+            parents[i] = ordinals.getOrDefault(element.getParentNode(), -1);
+            subtreeSizes[i] = 1;
+        }
+        for (int i = elements.size() - 1; i > 0; i--) {
+            subtreeSizes[parents[i]] += subtreeSizes[i];
+        }
+
+        final long[] subtreeHashes = subtreeHasher.hash(controlXml).toDocumentOrder(controlXml);
+        return new ControlDocumentArtifacts(names.toArray(String[]::new), nameIds, subtreeSizes, subtreeHashes);
+    }
+
+    public int nodeCount() {
+        return subtreeSizes.length;
+    }
+
+    public ControlPathIndex pathIndex() {
+        return ControlPathIndex.of(names, nameIds, subtreeSizes);
+    }
+
+    public SubtreeFingerprints fingerprints(final Document controlXml) {
+        return SubtreeFingerprints.fromDocumentOrder(controlXml, subtreeHashes, subtreeSizes);
+    }
+}
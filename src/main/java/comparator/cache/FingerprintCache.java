@@ -0,0 +1,191 @@
+package comparator.cache;
+
+import comparator.rules.ComparisonRules;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+public class FingerprintCache {
+
+    public static final long DEFAULT_MAX_SIZE_BYTES = 256L * 1024 * 1024;
+    public static final Duration DEFAULT_MAX_AGE = Duration.ofDays(30);
+
+    private static final int MAGIC = 0x58434650;
+    private static final int VERSION = 3;
+    private static final String EXTENSION = ".fpc";
+
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final Duration maxAge;
+
+    public FingerprintCache(final Path directory, final long maxSizeBytes, final Duration maxAge) {
+        this.directory = directory;
+        this.maxSizeBytes = maxSizeBytes;
+        this.maxAge = maxAge;
+    }
+
+    public ControlDocumentArtifacts getOrCompute(final Path controlXml, final ComparisonRules rules,
+                                                 final Supplier<ControlDocumentArtifacts> artifactsSupplier) throws IOException {
+        final Path entry = directory.resolve(key(controlXml, rules) + EXTENSION);
+
+        if (Files.isRegularFile(entry)) {
+            try {
+                final ControlDocumentArtifacts artifacts = read(entry);
+                Files.setLastModifiedTime(entry, FileTime.from(Instant.now()));
+                return artifacts;
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(entry);
+            }
+        }
+
+        final ControlDocumentArtifacts artifacts = artifactsSupplier.get();
+        write(entry, artifacts);
+        evict();
+        return artifacts;
+    }
+
+    public synchronized void evict() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        final List<Map.Entry<Path, BasicFileAttributes>> entries = new ArrayList<>();
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (final Path file : files) {
+                entries.add(Map.entry(file, Files.readAttributes(file, BasicFileAttributes.class)));
+            }
+        }
+        entries.sort(Comparator.comparing((Map.Entry<Path, BasicFileAttributes> entry) -> entry.getValue().lastModifiedTime()).reversed());
+
+        final Instant oldestAllowed = Instant.now().minus(maxAge);
+        long totalSize = 0;
+        for (final Map.Entry<Path, BasicFileAttributes> entry : entries) {
+            totalSize += entry.getValue().size();
+            if (totalSize > maxSizeBytes || entry.getValue().lastModifiedTime().toInstant().isBefore(oldestAllowed)) {
+                Files.deleteIfExists(entry.getKey());
+            }
+        }
+    }
+
+    private static String key(final Path controlXml, final ComparisonRules rules) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        try (final InputStream input = Files.newInputStream(controlXml)) {
+            final byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        final Set<String> ignoredAttributes = new TreeSet<>();
+        rules.nodeWithAttributesToSkip().forEach((node, attributes) ->
+                attributes.forEach(attribute -> ignoredAttributes.add(node + "@" + attribute)));
+        digest.update(String.join("\n", ignoredAttributes).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(String.join("\n", new TreeSet<>(rules.ignoreNodes())).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) VERSION);
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void write(final Path entry, final ControlDocumentArtifacts artifacts) throws IOException {
+        Files.createDirectories(directory);
+        final Path temporaryFile = Files.createTempFile(directory, "entry", ".tmp");
+
+        try (final OutputStream fileOutput = Files.newOutputStream(temporaryFile);
+             final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutput, 64 * 1024))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(artifacts.names().length);
+            for (final String name : artifacts.names()) {
+                final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+                output.writeInt(nameBytes.length);
+                output.write(nameBytes);
+            }
+
+            output.writeInt(artifacts.nodeCount());
+            for (final int nameId : artifacts.nameIds()) {
+                output.writeInt(nameId);
+            }
+            for (final int subtreeSize : artifacts.subtreeSizes()) {
+                output.writeInt(subtreeSize);
+            }
+            for (final long subtreeHash : artifacts.subtreeHashes()) {
+                output.writeLong(subtreeHash);
+            }
+        }
+
+        try {
+            Files.move(temporaryFile, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryFile, entry, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static ControlDocumentArtifacts read(final Path entry) throws IOException {
+        try (final FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Unsupported fingerprint cache entry " + entry);
+            }
+
+            final String[] names = new String[buffer.getInt()];
+            for (int i = 0; i < names.length; i++) {
+                final byte[] nameBytes = new byte[buffer.getInt()];
+                buffer.get(nameBytes);
+                names[i] = new String(nameBytes, StandardCharsets.UTF_8);
+            }
+
+            final int nodeCount = buffer.getInt();
+            final int[] nameIds = new int[nodeCount];
+            final int[] subtreeSizes = new int[nodeCount];
+            final long[] subtreeHashes = new long[nodeCount];
+
+            buffer.asIntBuffer().get(nameIds);
+            advance(buffer, nodeCount * Integer.BYTES);
+            buffer.asIntBuffer().get(subtreeSizes);
+            advance(buffer, nodeCount * Integer.BYTES);
+            buffer.asLongBuffer().get(subtreeHashes);
+
+            return new ControlDocumentArtifacts(names, nameIds, subtreeSizes, subtreeHashes);
+        }
+    }
+
+    private static void advance(final ByteBuffer buffer, final int bytes) {
+        buffer.position(buffer.position() + bytes);
+    }
+}
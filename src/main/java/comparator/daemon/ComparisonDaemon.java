@@ -0,0 +1,395 @@
+package comparator.daemon;
+
+import comparator.XmlComparator;
+import comparator.report.ReportFormat;
+import comparator.rules.ComparisonRules;
+import comparator.rules.RulesLoader;
+import comparator.similarity.SimilarityResult;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ComparisonDaemon implements Closeable {
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+    public static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofSeconds(30);
+
+    private static final String COMPARE_COMMAND = "COMPARE";
+    private static final String SHUTDOWN_COMMAND = "SHUTDOWN";
+    private static final String OK_RESPONSE = "OK";
+    private static final String BUSY_RESPONSE = "BUSY";
+    private static final String ERROR_RESPONSE = "ERROR";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+    private static final int MAX_REQUEST_BYTES = 64 * 1024;
+    private static final int READ_BUFFER_SIZE = 4096;
+    private static final long SELECT_TIMEOUT_MILLIS = 100;
+
+    private final Path socketPath;
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final ThreadPoolExecutor workers;
+    private final Duration shutdownTimeout;
+    private final Thread dispatcher;
+    private final AtomicBoolean closing = new AtomicBoolean();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+
+    private ComparisonDaemon(final Path socketPath, final ServerSocketChannel serverChannel, final Selector selector,
+                             final int workerCount, final int queueCapacity, final Duration shutdownTimeout) {
+        this.socketPath = socketPath;
+        this.serverChannel = serverChannel;
+        this.selector = selector;
+        this.shutdownTimeout = shutdownTimeout;
+
+        final AtomicInteger workerNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "comparison-worker-" + workerNumber.incrementAndGet()),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.dispatcher = new Thread(this::dispatchRequests, "comparison-daemon-dispatcher");
+    }
+
+    public static ComparisonDaemon start(final Path socketPath, final int workerCount, final int queueCapacity) throws IOException {
+        return start(socketPath, workerCount, queueCapacity, DEFAULT_SHUTDOWN_TIMEOUT);
+    }
+
+    public static ComparisonDaemon start(final Path socketPath, final int workerCount, final int queueCapacity,
+                                         final Duration shutdownTimeout) throws IOException {
+        removeStaleSocket(socketPath);
+
+        final ServerSocketChannel serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        final Selector selector;
+        try {
+            serverChannel.bind(UnixDomainSocketAddress.of(socketPath));
+            serverChannel.configureBlocking(false);
+            selector = Selector.open();
+        } catch (IOException e) {
+            serverChannel.close();
+            throw e;
+        }
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        final ComparisonDaemon daemon = new ComparisonDaemon(socketPath, serverChannel, selector, workerCount, queueCapacity,
+                shutdownTimeout);
+        daemon.dispatcher.start();
+        return daemon;
+    }
+
+    public void awaitTermination() throws InterruptedException {
+        terminated.await();
+    }
+
+    public int getQueuedJobs() {
+        return workers.getQueue().size();
+    }
+
+    public int getActiveJobs() {
+        return workers.getActiveCount();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            serverChannel.close();
+            selector.wakeup();
+            workers.shutdown();
+            if (!workers.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            Files.deleteIfExists(socketPath);
+            terminated.countDown();
+        }
+    }
+
+    private void dispatchRequests() {
+        try {
+            while (!closing.get()) {
+                selector.select(SELECT_TIMEOUT_MILLIS);
+
+                final List<PendingRequest> completedRequests = new ArrayList<>();
+                final Iterator<SelectionKey> selectedKeys = selector.selectedKeys().iterator();
+                while (selectedKeys.hasNext()) {
+                    final SelectionKey key = selectedKeys.next();
+                    selectedKeys.remove();
+                    if (key.isValid() && key.isAcceptable()) {
+                        accept();
+                    } else if (key.isValid() && key.isReadable()) {
+                        read(key, completedRequests);
+                    }
+                }
+                expirePendingRequests(completedRequests);
+
+                if (!completedRequests.isEmpty()) {
+                    selector.selectNow();
+                    completedRequests.forEach(this::dispatch);
+                }
+            }
+        } catch (ClosedSelectorException | IOException e) {
+            if (!closing.get()) {
+                closeQuietly();
+            }
+        } finally {
+            closePendingRequests();
+        }
+    }
+
+    private void accept() {
+        try {
+            final SocketChannel client = serverChannel.accept();
+            if (client != null) {
+                client.configureBlocking(false);
+                client.register(selector, SelectionKey.OP_READ, new PendingRequest(client, System.nanoTime() + REQUEST_TIMEOUT.toNanos()));
+            }
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void read(final SelectionKey key, final List<PendingRequest> completedRequests) {
+        final PendingRequest pendingRequest = (PendingRequest) key.attachment();
+        try {
+            if (pendingRequest.read()) {
+                key.cancel();
+                completedRequests.add(pendingRequest);
+            }
+        } catch (IOException e) {
+            key.cancel();
+            closeQuietly(pendingRequest.client());
+        }
+    }
+
+    private void expirePendingRequests(final List<PendingRequest> completedRequests) {
+        final long now = System.nanoTime();
+        for (final SelectionKey key : selector.keys()) {
+            if (key.isValid() && key.attachment() instanceof PendingRequest pendingRequest && pendingRequest.isExpired(now)) {
+                key.cancel();
+                completedRequests.add(pendingRequest);
+            }
+        }
+    }
+
+    private void closePendingRequests() {
+        try {
+            for (final SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof PendingRequest pendingRequest) {
+                    closeQuietly(pendingRequest.client());
+                }
+            }
+            selector.close();
+        } catch (ClosedSelectorException | IOException ignored) {
+        }
+    }
+
+    private void dispatch(final PendingRequest pendingRequest) {
+        final SocketChannel client = pendingRequest.client();
+        try {
+            client.configureBlocking(true);
+        } catch (IOException e) {
+            closeQuietly(client);
+            return;
+        }
+
+        if (!pendingRequest.isComplete()) {
+            respondAndClose(client, error("Request timed out"));
+            return;
+        }
+
+        final String request = pendingRequest.request();
+        if (request == null || request.isBlank()) {
+            respondAndClose(client, error("Empty request"));
+            return;
+        }
+
+        final String[] fields = request.split(ComparisonJob.FIELD_SEPARATOR);
+        switch (fields[0].toUpperCase(Locale.ROOT)) {
+            case COMPARE_COMMAND -> submit(client, fields);
+            case SHUTDOWN_COMMAND -> {
+                respondAndClose(client, OK_RESPONSE);
+                new Thread(this::closeQuietly, "comparison-daemon-shutdown").start();
+            }
+            default -> respondAndClose(client, error("Unknown command " + fields[0]));
+        }
+    }
+
+    private void submit(final SocketChannel client, final String[] fields) {
+        final ComparisonJob job;
+        try {
+            job = ComparisonJob.parse(fields);
+        } catch (IllegalArgumentException e) {
+            respondAndClose(client, error(singleLine(e)));
+            return;
+        }
+
+        try {
+            workers.execute(() -> respondAndClose(client, run(job)));
+        } catch (RejectedExecutionException e) {
+            respondAndClose(client, BUSY_RESPONSE);
+        }
+    }
+
+    private static String run(final ComparisonJob job) {
+        try {
+            return compare(job);
+        } catch (RuntimeException | IOException e) {
+            return error(singleLine(e));
+        }
+    }
+
+    private static String compare(final ComparisonJob job) throws IOException {
+        final ComparisonRules rules = job.rulesPath() != null ? RulesLoader.load(Path.of(job.rulesPath())) : ComparisonRules.DEFAULT;
+        final SimilarityResult similarityResult = XmlComparator.compare(job.controlXmlPath(), job.testXmlPath(), job.outputPath(),
+                rules, ReportFormat.fromFileName(job.outputPath()));
+
+        return String.join(ComparisonJob.FIELD_SEPARATOR, OK_RESPONSE,
+                String.valueOf(similarityResult.controlXmlNodeCount()),
+                String.valueOf(similarityResult.mismatchCount()),
+                String.format(Locale.ROOT, "%.2f", similarityResult.similarity()),
+                Path.of(job.outputPath()).toAbsolutePath().toString());
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            terminated.countDown();
+        }
+    }
+
+    private static void closeQuietly(final SocketChannel client) {
+        try {
+            client.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void respondAndClose(final SocketChannel client, final String response) {
+        try (client; final Writer writer = Channels.newWriter(client, StandardCharsets.UTF_8)) {
+            writer.write(response + "\n");
+            writer.flush();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void removeStaleSocket(final Path socketPath) throws IOException {
+        if (!Files.exists(socketPath)) {
+            return;
+        }
+
+        boolean listening;
+        try {
+            SocketChannel.open(UnixDomainSocketAddress.of(socketPath)).close();
+            listening = true;
+        } catch (IOException e) {
+            listening = false;
+        }
+
+        if (listening) {
+            throw new IOException("Comparison daemon is already listening on " + socketPath);
+        }
+        Files.delete(socketPath);
+    }
+
+    private static String error(final String message) {
+        return ERROR_RESPONSE + ComparisonJob.FIELD_SEPARATOR + message;
+    }
+
+    private static String singleLine(final Exception exception) {
+        String message = String.valueOf(exception.getMessage());
+        if (exception.getCause() != null && exception.getCause().getMessage() != null) {
+            message += ": " + exception.getCause().getMessage();
+        }
+        return message.replace('\n', ' ').replace('\r', ' ').replace('\t', ' ');
+    }
+
+    private static final class PendingRequest {
+
+        private final SocketChannel client;
+        private final long deadline;
+        private final ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private boolean complete;
+        private boolean endOfStream;
+
+        private PendingRequest(final SocketChannel client, final long deadline) {
+            this.client = client;
+            this.deadline = deadline;
+        }
+
+        private SocketChannel client() {
+            return client;
+        }
+
+        private boolean read() throws IOException {
+            buffer.clear();
+            if (client.read(buffer) < 0) {
+                endOfStream = true;
+                complete = true;
+                return true;
+            }
+
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                final byte value = buffer.get();
+                if (value == '\n') {
+                    complete = true;
+                    return true;
+                }
+                line.write(value);
+            }
+
+            if (line.size() > MAX_REQUEST_BYTES) {
+                throw new IOException("Request exceeds " + MAX_REQUEST_BYTES + " bytes");
+            }
+            return false;
+        }
+
+        private boolean isComplete() {
+            return complete;
+        }
+
+        private boolean isExpired(final long now) {
+            return !complete && now - deadline > 0;
+        }
+
+        private String request() {
+            if (endOfStream && line.size() == 0) {
+                return null;
+            }
+
+            final String request = line.toString(StandardCharsets.UTF_8);
+            return request.endsWith("\r") ? request.substring(0, request.length() - 1) : request;
+        }
+    }
+}
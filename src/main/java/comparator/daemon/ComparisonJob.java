@@ -0,0 +1,13 @@
+package comparator.daemon;
+
+public record ComparisonJob(String controlXmlPath, String testXmlPath, String outputPath, String rulesPath) {
+
+    static final String FIELD_SEPARATOR = "\t";
+
+    static ComparisonJob parse(final String[] fields) {
+        if (fields.length < 4 || fields.length > 5) {
+            throw new IllegalArgumentException("Expected COMPARE <control> <test> <output> [rules] separated by tabs");
+        }
+        return new ComparisonJob(fields[1], fields[2], fields[3], fields.length > 4 ? fields[4] : null);
+    }
+}
@@ -0,0 +1,18 @@
+package comparator.diffrence;
+
+import java.util.Map;
+
+public interface DifferenceDetails {
+
+    String nodeXPath();
+
+    Map<String, String> controlNodeAttributes();
+
+    Map<String, String> testNodeAttributes();
+
+    String expectedValue();
+
+    String actualValue();
+
+    String description();
+}
@@ -0,0 +1,54 @@
+package comparator.diffrence;
+
+enum LargeTextValues {
+    ;
+
+    static final int LARGE_VALUE_LENGTH = 4096;
+
+    private static final int CHUNK_LENGTH = 1024;
+    private static final int EXCERPT_CONTEXT_LENGTH = 64;
+    private static final String ELLIPSIS = "...";
+
+    static boolean isLarge(final String value) {
+        return value != null && value.length() > LARGE_VALUE_LENGTH;
+    }
+
+    static int firstMismatch(final String first, final String second) {
+        final int commonLength = Math.min(first.length(), second.length());
+
+        int chunkStart = 0;
+        while (chunkStart < commonLength) {
+            final int chunkLength = Math.min(CHUNK_LENGTH, commonLength - chunkStart);
+            if (!first.regionMatches(chunkStart, second, chunkStart, chunkLength)) {
+                for (int i = chunkStart; i < chunkStart + chunkLength; i++) {
+                    if (first.charAt(i) != second.charAt(i)) {
+                        return i;
+                    }
+                }
+            }
+            chunkStart += chunkLength;
+        }
+        return first.length() == second.length() ? -1 : commonLength;
+    }
+
+    static String excerpt(final String value, final int mismatchOffset) {
+        if (!isLarge(value)) {
+            return value;
+        }
+
+        final int offset = Math.max(0, Math.min(mismatchOffset, value.length()));
+        final int start = Math.max(0, offset - EXCERPT_CONTEXT_LENGTH);
+        final int end = Math.min(value.length(), offset + EXCERPT_CONTEXT_LENGTH);
+
+        final StringBuilder excerpt = new StringBuilder(end - start + 2 * ELLIPSIS.length() + 64);
+        if (start > 0) {
+            excerpt.append(ELLIPSIS);
+        }
+        excerpt.append(value, start, end);
+        if (end < value.length()) {
+            excerpt.append(ELLIPSIS);
+        }
+        return excerpt.append(" [").append(value.length()).append(" characters, first difference at offset ")
+                .append(offset).append(']').toString();
+    }
+}
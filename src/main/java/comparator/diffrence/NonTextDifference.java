@@ -1,5 +1,6 @@
 package comparator.diffrence;
 
+import java.io.IOException;
 import java.util.Map;
 
 public class NonTextDifference extends ReportDifference {
@@ -11,10 +12,25 @@ public class NonTextDifference extends ReportDifference {
         this.description = description;
     }
 
-    public String toString() {
-        return SEPARATOR_LINE +
-                "\nDescription: " + description +
-                "\nAttributes: " + printAttributes() +
-                "\nXPath: " + nodeXPath;
+    public NonTextDifference(DifferenceDetails details) {
+        super(details);
+        this.description = null;
+    }
+
+    public String getDescription() {
+        return details != null ? details.description() : description;
+    }
+
+    @Override
+    public ReportDifference withNodeXPath(String nodeXPath) {
+        return new NonTextDifference(nodeXPath, getControlNodeAttributes(), getTestNodeAttributes(), getDescription());
+    }
+
+    @Override
+    public void appendTo(Appendable output) throws IOException {
+        output.append(SEPARATOR_LINE)
+                .append("\nDescription: ").append(getDescription())
+                .append("\nAttributes: ").append(printAttributes())
+                .append("\nXPath: ").append(getNodeXPath());
     }
 }
@@ -1,23 +1,34 @@
 package comparator.diffrence;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Map;
 
 public abstract class ReportDifference {
 
     protected final String SEPARATOR_LINE = "+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++";
 
-    protected final String nodeXPath;
-    protected final Map<String, String> controlNodeAttributes;
-    protected final Map<String, String> testNodeAttributes;
+    protected final DifferenceDetails details;
+    private final String nodeXPath;
+    private final Map<String, String> controlNodeAttributes;
+    private final Map<String, String> testNodeAttributes;
 
     public ReportDifference(String nodeXPath, Map<String, String> controlNodeAttributes, Map<String, String> testNodeAttributes) {
+        this.details = null;
         this.nodeXPath = nodeXPath;
         this.controlNodeAttributes = controlNodeAttributes;
         this.testNodeAttributes = testNodeAttributes;
     }
 
+    protected ReportDifference(DifferenceDetails details) {
+        this.details = details;
+        this.nodeXPath = null;
+        this.controlNodeAttributes = null;
+        this.testNodeAttributes = null;
+    }
+
     protected String printAttributes() {
-        final Map<String, String> attributesToPrint = controlNodeAttributes != null ? controlNodeAttributes : testNodeAttributes;
+        final Map<String, String> attributesToPrint = getAttributes();
 
         if (attributesToPrint == null || attributesToPrint.isEmpty()) {
             return "[]";
@@ -25,5 +36,35 @@ public abstract class ReportDifference {
         return attributesToPrint.toString();
     }
 
-    public abstract String toString();
+    public String getNodeXPath() {
+        return details != null ? details.nodeXPath() : nodeXPath;
+    }
+
+    public Map<String, String> getControlNodeAttributes() {
+        return details != null ? details.controlNodeAttributes() : controlNodeAttributes;
+    }
+
+    public Map<String, String> getTestNodeAttributes() {
+        return details != null ? details.testNodeAttributes() : testNodeAttributes;
+    }
+
+    public Map<String, String> getAttributes() {
+        final Map<String, String> attributes = getControlNodeAttributes();
+        return attributes != null ? attributes : getTestNodeAttributes();
+    }
+
+    public abstract ReportDifference withNodeXPath(String nodeXPath);
+
+    public abstract void appendTo(Appendable output) throws IOException;
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        try {
+            appendTo(builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
 }
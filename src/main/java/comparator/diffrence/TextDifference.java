@@ -1,25 +1,77 @@
 package comparator.diffrence;
 
+import java.io.IOException;
 import java.util.Map;
 
 public class TextDifference extends ReportDifference {
 
-    private final String expectedValue;
-    private final String actualValue;
+    private String expectedValue;
+    private String actualValue;
+    private boolean valuesResolved;
 
     public TextDifference(String nodeXPath, Map<String, String> controlNodeAttributes, Map<String, String> testNodeAttributes,
                           String expectedValue, String actualValue) {
         super(nodeXPath, controlNodeAttributes, testNodeAttributes);
         this.expectedValue = expectedValue;
         this.actualValue = actualValue;
+        this.valuesResolved = true;
+    }
+
+    public TextDifference(DifferenceDetails details) {
+        super(details);
+    }
+
+    public static TextDifference ofValues(String nodeXPath, Map<String, String> controlNodeAttributes,
+                                          Map<String, String> testNodeAttributes, String expectedValue, String actualValue) {
+        final TextDifference difference = new TextDifference(nodeXPath, controlNodeAttributes, testNodeAttributes, expectedValue, actualValue);
+        difference.excerptLargeValues();
+        return difference;
+    }
+
+    public String getExpectedValue() {
+        resolveValues();
+        return expectedValue;
+    }
+
+    public String getActualValue() {
+        resolveValues();
+        return actualValue;
     }
 
     @Override
-    public String toString() {
-        return SEPARATOR_LINE +
-                "\nAttributes: " + printAttributes() +
-                "\nXPath: " + nodeXPath +
-                "\nExpected: " + expectedValue +
-                "\nActual: " + actualValue;
+    public ReportDifference withNodeXPath(String nodeXPath) {
+        return new TextDifference(nodeXPath, getControlNodeAttributes(), getTestNodeAttributes(), getExpectedValue(), getActualValue());
+    }
+
+    @Override
+    public void appendTo(Appendable output) throws IOException {
+        output.append(SEPARATOR_LINE)
+                .append("\nAttributes: ").append(printAttributes())
+                .append("\nXPath: ").append(getNodeXPath())
+                .append("\nExpected: ").append(getExpectedValue())
+                .append("\nActual: ").append(getActualValue());
+    }
+
+    private void resolveValues() {
+        if (valuesResolved) {
+            return;
+        }
+
+        expectedValue = details.expectedValue();
+        actualValue = details.actualValue();
+        excerptLargeValues();
+        valuesResolved = true;
+    }
+
+    private void excerptLargeValues() {
+        if (!LargeTextValues.isLarge(expectedValue) && !LargeTextValues.isLarge(actualValue)) {
+            return;
+        }
+
+        final int mismatchOffset = (expectedValue == null || actualValue == null)
+                ? 0
+                : LargeTextValues.firstMismatch(expectedValue, actualValue);
+        expectedValue = LargeTextValues.excerpt(expectedValue, mismatchOffset);
+        actualValue = LargeTextValues.excerpt(actualValue, mismatchOffset);
     }
 }
@@ -0,0 +1,148 @@
+package comparator.fingerprint;
+
+import comparator.XmlUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xmlunit.diff.NodeMatcher;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+public class SubtreeFingerprints {
+
+    private final Map<Node, Long> hashes;
+    private final Map<Node, Integer> ordinals;
+    private final long[] hashesInDocumentOrder;
+    private final int[] subtreeSizes;
+
+    SubtreeFingerprints(final Map<Node, Long> hashes) {
+        this(hashes, null, null, null);
+    }
+
+    private SubtreeFingerprints(final Map<Node, Long> hashes, final Map<Node, Integer> ordinals, final long[] hashesInDocumentOrder,
+                                final int[] subtreeSizes) {
+        this.hashes = hashes;
+        this.ordinals = ordinals;
+        this.hashesInDocumentOrder = hashesInDocumentOrder;
+        this.subtreeSizes = subtreeSizes;
+    }
+
+    public static SubtreeFingerprints fromDocumentOrder(final Document document, final long[] hashesInDocumentOrder,
+                                                        final int[] subtreeSizes) {
+        final Node rootElement = document.getDocumentElement();
+        final int elementCount = hashesInDocumentOrder.length;
+        if (subtreeSizes.length != elementCount || (rootElement == null) != (elementCount == 0)
+                || (elementCount > 0 && subtreeSizes[0] != elementCount)) {
+            throw new IllegalArgumentException("Fingerprints in document order do not describe a single element tree");
+        }
+
+        final Map<Node, Integer> ordinals = new IdentityHashMap<>();
+        if (rootElement != null) {
+            ordinals.put(rootElement, 0);
+        }
+        return new SubtreeFingerprints(new IdentityHashMap<>(), ordinals, hashesInDocumentOrder, subtreeSizes);
+    }
+
+    public long[] toDocumentOrder(final Document document) {
+        final List<Node> elements = XmlUtils.getElementsInDocumentOrder(document);
+        final long[] hashesInDocumentOrder = new long[elements.size()];
+        for (int i = 0; i < hashesInDocumentOrder.length; i++) {
+            hashesInDocumentOrder[i] = get(elements.get(i));
+        }
+        return hashesInDocumentOrder;
+    }
+
+    public long get(final Node element) {
+        Long hash = hashes.get(element);
+        if (hash == null && ordinals != null) {
+            hash = hashesInDocumentOrder[resolveOrdinal(element)];
+            hashes.put(element, hash);
+        }
+        if (hash == null) {
+            throw new IllegalArgumentException("No fingerprint for node " + element.getNodeName());
+        }
+        return hash;
+    }
+
+    private int resolveOrdinal(final Node element) {
+        final Deque<Node> unresolvedAncestors = new ArrayDeque<>();
+        Node current = element;
+        while (current != null && current.getNodeType() == Node.ELEMENT_NODE && !ordinals.containsKey(current)) {
+            unresolvedAncestors.push(current);
+            current = current.getParentNode();
+        }
+        if (current == null || !ordinals.containsKey(current)) {
+            throw new IllegalArgumentException("No fingerprint for node " + element.getNodeName());
+        }
+
+        while (!unresolvedAncestors.isEmpty()) {
+            resolveChildren(unresolvedAncestors.pop().getParentNode());
+        }
+        return ordinals.get(element);
+    }
+
+    private void resolveChildren(final Node parent) {
+        final int parentOrdinal = ordinals.get(parent);
+        final int end = parentOrdinal + subtreeSizes[parentOrdinal];
+        int ordinal = parentOrdinal + 1;
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                if (ordinal >= end) {
+                    throw new IllegalArgumentException("Fingerprints in document order do not match element " + parent.getNodeName());
+                }
+                ordinals.put(child, ordinal);
+                ordinal += subtreeSizes[ordinal];
+            }
+        }
+        if (ordinal != end) {
+            throw new IllegalArgumentException("Fingerprints in document order do not match element " + parent.getNodeName());
+        }
+    }
+
+    public static Set<Node> findIdenticalSubtrees(final Document controlXml, final SubtreeFingerprints controlFingerprints,
+                                                  final Document testXml, final SubtreeFingerprints testFingerprints,
+                                                  final NodeMatcher nodeMatcher, final Predicate<Node> nodeFilter) {
+        final Set<Node> identicalSubtrees = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<Map.Entry<Node, Node>> pending = new ArrayDeque<>();
+
+        final Node controlRoot = controlXml.getDocumentElement();
+        final Node testRoot = testXml.getDocumentElement();
+        if (controlRoot != null && testRoot != null && controlRoot.getNodeName().equals(testRoot.getNodeName())) {
+            pending.push(Map.entry(controlRoot, testRoot));
+        }
+
+        while (!pending.isEmpty()) {
+            final Map.Entry<Node, Node> pair = pending.pop();
+            if (controlFingerprints.get(pair.getKey()) == testFingerprints.get(pair.getValue())) {
+                identicalSubtrees.add(pair.getKey());
+                identicalSubtrees.add(pair.getValue());
+                continue;
+            }
+
+            for (final Map.Entry<Node, Node> childPair : nodeMatcher.match(filteredChildren(pair.getKey(), nodeFilter),
+                    filteredChildren(pair.getValue(), nodeFilter))) {
+                if (childPair.getKey().getNodeType() == Node.ELEMENT_NODE && childPair.getValue().getNodeType() == Node.ELEMENT_NODE) {
+                    pending.push(childPair);
+                }
+            }
+        }
+        return identicalSubtrees;
+    }
+
+    private static List<Node> filteredChildren(final Node parent, final Predicate<Node> nodeFilter) {
+        final List<Node> children = new ArrayList<>();
+        for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (nodeFilter.test(child)) {
+                children.add(child);
+            }
+        }
+        return children;
+    }
+}
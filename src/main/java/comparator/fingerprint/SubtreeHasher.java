@@ -0,0 +1,111 @@
+package comparator.fingerprint;
+
+import comparator.XmlUtils;
+import comparator.rules.ComparisonRules;
+import comparator.rules.CompiledRules;
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class SubtreeHasher {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final CompiledRules rules;
+    private final boolean ignoreWhitespace;
+    private final boolean ignoreComments;
+
+    public SubtreeHasher(final ComparisonRules rules, final boolean ignoreWhitespace, final boolean ignoreComments) {
+        this.rules = CompiledRules.of(rules);
+        this.ignoreWhitespace = ignoreWhitespace;
+        this.ignoreComments = ignoreComments;
+    }
+
+    public SubtreeFingerprints hash(final Document document) {
+        final List<Node> elements = XmlUtils.getElementsInDocumentOrder(document);
+        final Map<Node, Long> hashes = new IdentityHashMap<>(elements.size() * 2);
+
+        for (int i = elements.size() - 1; i >= 0; i--) {
+            final Node element = elements.get(i);
+            hashes.put(element, hashElement(element, hashes));
+        }
+
+        return new SubtreeFingerprints(hashes);
+    }
+
+    public static long combine(final long hash, final long value) {
+        return mix(hash, value);
+    }
+
+    private long hashElement(final Node element, final Map<Node, Long> hashes) {
+        long hash = mix(FNV_OFFSET_BASIS, element.getNodeName());
+
+        final NamedNodeMap attributes = element.getAttributes();
+        hash = mix(hash, attributes.getLength());
+
+        final Map<String, String> comparedAttributes = new TreeMap<>();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            final Node attribute = attributes.item(i);
+            if (!rules.isAttributeIgnored(element.getNodeName(), attribute.getNodeName())) {
+                comparedAttributes.put(attribute.getNodeName(), attribute.getNodeValue());
+            }
+        }
+        for (final Map.Entry<String, String> attribute : comparedAttributes.entrySet()) {
+            hash = mix(mix(hash, attribute.getKey()), attribute.getValue());
+        }
+
+        final StringBuilder textRun = new StringBuilder();
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            switch (child.getNodeType()) {
+                case Node.TEXT_NODE -> textRun.append(ignoreWhitespace ? child.getNodeValue().trim() : child.getNodeValue());
+                case Node.COMMENT_NODE -> {
+                    if (!ignoreComments) {
+                        hash = mix(mixTextRun(hash, textRun), Node.COMMENT_NODE);
+                        hash = mix(hash, ignoreWhitespace ? child.getNodeValue().trim() : child.getNodeValue());
+                    }
+                }
+                case Node.ELEMENT_NODE -> hash = rules.isNodeIgnored(child)
+                        ? mixTextRun(hash, textRun)
+                        : mix(mixTextRun(hash, textRun), hashes.get(child));
+                default -> {
+                    hash = mix(mix(mixTextRun(hash, textRun), child.getNodeType()), child.getNodeName());
+                    if (child.getNodeValue() != null) {
+                        hash = mix(hash, ignoreWhitespace ? child.getNodeValue().trim() : child.getNodeValue());
+                    }
+                }
+            }
+        }
+        hash = mixTextRun(hash, textRun);
+
+        return hash;
+    }
+
+    private static long mixTextRun(long hash, final StringBuilder textRun) {
+        if (!textRun.isEmpty()) {
+            hash = mix(mix(hash, Node.TEXT_NODE), textRun.toString());
+            textRun.setLength(0);
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return mix(hash, value.length());
+    }
+
+    private static long mix(long hash, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = (hash ^ (value & 0xff)) * FNV_PRIME;
+            value >>>= 8;
+        }
+        return hash;
+    }
+}
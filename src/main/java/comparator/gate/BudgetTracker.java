@@ -0,0 +1,57 @@
+package comparator.gate;
+
+import comparator.DifferenceCategory;
+import comparator.DifferenceSink;
+import comparator.diffrence.ReportDifference;
+import comparator.similarity.ControlNodeCounts;
+import comparator.store.DifferenceStore;
+
+class BudgetTracker implements DifferenceSink {
+
+    private final ComparisonBudget budget;
+    private int controlXmlNodeCount;
+    private final DifferenceStore differenceStore = new DifferenceStore();
+    private Verdict verdict = Verdict.PASSED;
+
+    BudgetTracker(final ComparisonBudget budget) {
+        this.budget = budget;
+    }
+
+    void start(final ControlNodeCounts nodeCounts) {
+        controlXmlNodeCount = nodeCounts.elementCount();
+    }
+
+    @Override
+    public void accept(final DifferenceCategory category, final ReportDifference difference) {
+        differenceStore.accept(category, difference);
+        if (verdict.isPassed()) {
+            verdict = evaluate();
+        }
+    }
+
+    boolean isDecided() {
+        return !verdict.isPassed();
+    }
+
+    Verdict getVerdict() {
+        return verdict;
+    }
+
+    DifferenceStore getDifferenceStore() {
+        return differenceStore;
+    }
+
+    private Verdict evaluate() {
+        if (budget.hasDifferenceLimit() && differenceStore.size() > budget.maxDifferences()) {
+            return Verdict.DIFFERENCE_BUDGET_EXCEEDED;
+        }
+
+        if (budget.hasSimilarityTarget()) {
+            final int correctNodeCount = controlXmlNodeCount - differenceStore.getCount(DifferenceCategory.TEXT);
+            if ((double) correctNodeCount / controlXmlNodeCount * 100 < budget.minSimilarity()) {
+                return Verdict.SIMILARITY_BELOW_TARGET;
+            }
+        }
+        return Verdict.PASSED;
+    }
+}
@@ -0,0 +1,32 @@
+package comparator.gate;
+
+public record ComparisonBudget(int maxDifferences, double minSimilarity) {
+
+    public static final int UNLIMITED_DIFFERENCES = -1;
+    public static final double NO_SIMILARITY_TARGET = 0.0;
+
+    public ComparisonBudget {
+        if (maxDifferences < UNLIMITED_DIFFERENCES) {
+            throw new IllegalArgumentException("maxDifferences must be -1 (unlimited) or non-negative");
+        }
+        if (minSimilarity < 0.0 || minSimilarity > 100.0) {
+            throw new IllegalArgumentException("minSimilarity must be between 0 and 100");
+        }
+    }
+
+    public static ComparisonBudget maxDifferences(final int maxDifferences) {
+        return new ComparisonBudget(maxDifferences, NO_SIMILARITY_TARGET);
+    }
+
+    public static ComparisonBudget minSimilarity(final double minSimilarity) {
+        return new ComparisonBudget(UNLIMITED_DIFFERENCES, minSimilarity);
+    }
+
+    public boolean hasDifferenceLimit() {
+        return maxDifferences != UNLIMITED_DIFFERENCES;
+    }
+
+    public boolean hasSimilarityTarget() {
+        return minSimilarity > NO_SIMILARITY_TARGET;
+    }
+}
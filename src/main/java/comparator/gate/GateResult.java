@@ -0,0 +1,8 @@
+package comparator.gate;
+
+import comparator.DifferenceResult;
+import comparator.similarity.SimilarityResult;
+
+public record GateResult(Verdict verdict, boolean terminatedEarly, DifferenceResult differenceResult,
+                         SimilarityResult similarityResult) {
+}
@@ -0,0 +1,26 @@
+package comparator.gate;
+
+import comparator.DifferenceAnalyzer;
+import comparator.DifferenceCategory;
+import comparator.DifferenceFinder;
+import comparator.metrics.MetricsRecorder;
+import comparator.rules.ComparisonRules;
+import comparator.similarity.ControlNodeCounts;
+import comparator.similarity.SimilarityCalculator;
+import org.w3c.dom.Document;
+
+public class GatedComparator {
+
+    public static GateResult compare(final Document controlXml, final Document testXml, final ComparisonRules rules,
+                                     final ComparisonBudget budget) {
+        final BudgetTracker budgetTracker = new BudgetTracker(budget);
+
+        final ControlNodeCounts nodeCounts = DifferenceFinder.findDifferences(controlXml, testXml, rules, MetricsRecorder.NOOP,
+                difference -> budgetTracker.isDecided(), budgetTracker::start,
+                difference -> DifferenceAnalyzer.analyzeDifference(difference, budgetTracker));
+
+        return new GateResult(budgetTracker.getVerdict(), budgetTracker.isDecided(),
+                budgetTracker.getDifferenceStore().toDifferenceResult(),
+                SimilarityCalculator.calculate(nodeCounts.elementCount(), budgetTracker.getDifferenceStore().getCount(DifferenceCategory.TEXT)));
+    }
+}
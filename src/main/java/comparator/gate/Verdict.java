@@ -0,0 +1,11 @@
+package comparator.gate;
+
+public enum Verdict {
+    PASSED,
+    DIFFERENCE_BUDGET_EXCEEDED,
+    SIMILARITY_BELOW_TARGET;
+
+    public boolean isPassed() {
+        return this == PASSED;
+    }
+}
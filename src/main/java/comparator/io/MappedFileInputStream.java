@@ -0,0 +1,111 @@
+package comparator.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+class MappedFileInputStream extends InputStream {
+
+    private static final long MAPPING_WINDOW_SIZE = 256L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private long windowStart;
+    private MappedByteBuffer window;
+    private long markedPosition;
+
+    MappedFileInputStream(final FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.window = map(0);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureRemaining()) {
+            return -1;
+        }
+        return window.get() & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureRemaining()) {
+            return -1;
+        }
+
+        final int count = Math.min(length, window.remaining());
+        window.get(buffer, offset, count);
+        return count;
+    }
+
+    @Override
+    public long skip(final long count) throws IOException {
+        final long skipped = Math.max(0, Math.min(count, available(position())));
+        seek(position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(final int readLimit) {
+        markedPosition = position();
+    }
+
+    @Override
+    public synchronized void reset() throws IOException {
+        seek(markedPosition);
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, available(position()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean ensureRemaining() throws IOException {
+        if (window.hasRemaining()) {
+            return true;
+        }
+
+        final long nextWindowStart = windowStart + window.limit();
+        if (nextWindowStart >= size) {
+            return false;
+        }
+        window = map(nextWindowStart);
+        return true;
+    }
+
+    private void seek(final long target) throws IOException {
+        if (target >= windowStart && target < windowStart + window.limit()) {
+            window.position((int) (target - windowStart));
+        } else {
+            window = map(target);
+        }
+    }
+
+    private MappedByteBuffer map(final long start) throws IOException {
+        windowStart = start;
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(MAPPING_WINDOW_SIZE, size - start));
+    }
+
+    private long position() {
+        return windowStart + window.position();
+    }
+
+    private long available(final long position) {
+        return size - position;
+    }
+}
@@ -0,0 +1,89 @@
+package comparator.io;
+
+import javax.xml.stream.XMLInputFactory;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public enum XmlSources {
+    ;
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final long MEMORY_MAPPING_THRESHOLD = 4L * 1024 * 1024;
+    private static final int GZIP_MAGIC = 0x1f8b;
+    private static final int ZIP_MAGIC = 0x504b0304;
+    private static final String XML_EXTENSION = ".xml";
+    private static final String REPORT_CDATA_PROPERTY = "http://java.sun.com/xml/stream/properties/report-cdata-event";
+
+    public static InputStream open(final Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final InputStream fileInput = channel.size() >= MEMORY_MAPPING_THRESHOLD
+                    ? new MappedFileInputStream(channel)
+                    : new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE);
+            return open(fileInput);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static InputStream open(final InputStream input) throws IOException {
+        final InputStream markableInput = input.markSupported() ? input : new BufferedInputStream(input, BUFFER_SIZE);
+
+        markableInput.mark(Integer.BYTES);
+        final byte[] header = markableInput.readNBytes(Integer.BYTES);
+        markableInput.reset();
+
+        if (header.length >= Short.BYTES && readShort(header) == GZIP_MAGIC) {
+            return new BufferedInputStream(new GZIPInputStream(markableInput, BUFFER_SIZE), BUFFER_SIZE);
+        }
+        if (header.length >= Integer.BYTES && readInt(header) == ZIP_MAGIC) {
+            return openXmlEntry(new ZipInputStream(markableInput));
+        }
+        return markableInput;
+    }
+
+    public static XMLInputFactory newInputFactory() {
+        final XMLInputFactory inputFactory = XMLInputFactory.newFactory();
+        inputFactory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        if (inputFactory.isPropertySupported(REPORT_CDATA_PROPERTY)) {
+            inputFactory.setProperty(REPORT_CDATA_PROPERTY, true);
+        }
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return inputFactory;
+    }
+
+    private static InputStream openXmlEntry(final ZipInputStream zipInput) throws IOException {
+        ZipEntry entry;
+        ZipEntry firstFileEntry = null;
+        while ((entry = zipInput.getNextEntry()) != null) {
+            if (!entry.isDirectory() && entry.getName().toLowerCase().endsWith(XML_EXTENSION)) {
+                return new BufferedInputStream(zipInput, BUFFER_SIZE);
+            }
+            if (!entry.isDirectory() && firstFileEntry == null) {
+                firstFileEntry = entry;
+            }
+        }
+
+        zipInput.close();
+        throw new IOException(firstFileEntry == null
+                ? "Zip archive contains no files"
+                : "Zip archive contains no " + XML_EXTENSION + " entry");
+    }
+
+    private static int readShort(final byte[] bytes) {
+        return ((bytes[0] & 0xff) << 8) | (bytes[1] & 0xff);
+    }
+
+    private static int readInt(final byte[] bytes) {
+        return ((bytes[0] & 0xff) << 24) | ((bytes[1] & 0xff) << 16) | ((bytes[2] & 0xff) << 8) | (bytes[3] & 0xff);
+    }
+}
@@ -0,0 +1,90 @@
+package comparator.metrics;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ComparisonMetrics implements MetricsRecorder, ComparisonMetricsMXBean {
+
+    private final long[] stageNanos = new long[Stage.values().length];
+    private final long[] stageCalls = new long[Stage.values().length];
+    private final long[] counters = new long[Counter.values().length];
+    private final long[] ruleHits = new long[Rule.values().length];
+
+    private long[] nestedNanos = new long[8];
+    private int depth;
+
+    @Override
+    public long startStage() {
+        if (depth == nestedNanos.length) {
+            nestedNanos = Arrays.copyOf(nestedNanos, depth * 2);
+        }
+        nestedNanos[depth++] = 0L;
+        return System.nanoTime();
+    }
+
+    @Override
+    public void endStage(final Stage stage, final long start) {
+        final long elapsed = System.nanoTime() - start;
+        stageNanos[stage.ordinal()] += elapsed - nestedNanos[--depth];
+        stageCalls[stage.ordinal()]++;
+        if (depth > 0) {
+            nestedNanos[depth - 1] += elapsed;
+        }
+    }
+
+    @Override
+    public void increment(final Counter counter) {
+        counters[counter.ordinal()]++;
+    }
+
+    @Override
+    public void add(final Counter counter, final long amount) {
+        counters[counter.ordinal()] += amount;
+    }
+
+    @Override
+    public void recordRuleHit(final Rule rule) {
+        ruleHits[rule.ordinal()]++;
+    }
+
+    public long getStageNanos(final Stage stage) {
+        return stageNanos[stage.ordinal()];
+    }
+
+    public long getCount(final Counter counter) {
+        return counters[counter.ordinal()];
+    }
+
+    public long getRuleHits(final Rule rule) {
+        return ruleHits[rule.ordinal()];
+    }
+
+    @Override
+    public Map<String, Long> getStageNanos() {
+        return toMap(Stage.values(), stageNanos);
+    }
+
+    @Override
+    public Map<String, Long> getStageCalls() {
+        return toMap(Stage.values(), stageCalls);
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        return toMap(Counter.values(), counters);
+    }
+
+    @Override
+    public Map<String, Long> getRuleHits() {
+        return toMap(Rule.values(), ruleHits);
+    }
+
+    private static Map<String, Long> toMap(final Enum<?>[] keys, final long[] values) {
+        final Map<String, Long> map = new LinkedHashMap<>();
+        for (final Enum<?> key : keys) {
+            map.put(key.name(), values[key.ordinal()]);
+        }
+        return map;
+    }
+}
@@ -0,0 +1,14 @@
+package comparator.metrics;
+
+import java.util.Map;
+
+public interface ComparisonMetricsMXBean {
+
+    Map<String, Long> getStageNanos();
+
+    Map<String, Long> getStageCalls();
+
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getRuleHits();
+}
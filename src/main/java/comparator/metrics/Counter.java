@@ -0,0 +1,10 @@
+package comparator.metrics;
+
+public enum Counter {
+    CONTROL_NODES,
+    COMPARISONS,
+    DIFFERENCES,
+    FILTERED_NODES,
+    PRUNED_SUBTREES,
+    BYTES_WRITTEN
+}
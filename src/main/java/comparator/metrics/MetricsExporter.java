@@ -0,0 +1,54 @@
+package comparator.metrics;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+public enum MetricsExporter {
+    ;
+    private static final String OBJECT_NAME_PREFIX = "comparator:type=ComparisonMetrics,name=";
+
+    public static String toJson(final ComparisonMetrics metrics) {
+        final StringBuilder json = new StringBuilder("{");
+        appendSection(json, "stageNanos", metrics.getStageNanos());
+        json.append(',');
+        appendSection(json, "stageCalls", metrics.getStageCalls());
+        json.append(',');
+        appendSection(json, "counters", metrics.getCounters());
+        json.append(',');
+        appendSection(json, "ruleHits", metrics.getRuleHits());
+        return json.append('}').toString();
+    }
+
+    public static void writeJson(final ComparisonMetrics metrics, final Path outputPath) throws IOException {
+        Files.writeString(outputPath, toJson(metrics) + "\n", StandardCharsets.UTF_8);
+    }
+
+    public static ObjectName registerMBean(final ComparisonMetrics metrics, final String name) throws JMException {
+        final ObjectName objectName = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName);
+        return objectName;
+    }
+
+    public static void unregisterMBean(final ObjectName objectName) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    }
+
+    private static void appendSection(final StringBuilder json, final String name, final Map<String, Long> values) {
+        json.append('"').append(name).append("\":{");
+        boolean first = true;
+        for (final Map.Entry<String, Long> value : values.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+            first = false;
+            json.append('"').append(value.getKey()).append("\":").append(value.getValue());
+        }
+        json.append('}');
+    }
+}
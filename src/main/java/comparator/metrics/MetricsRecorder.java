@@ -0,0 +1,23 @@
+package comparator.metrics;
+
+public interface MetricsRecorder {
+
+    MetricsRecorder NOOP = new MetricsRecorder() {
+    };
+
+    default long startStage() {
+        return 0L;
+    }
+
+    default void endStage(Stage stage, long start) {
+    }
+
+    default void increment(Counter counter) {
+    }
+
+    default void add(Counter counter, long amount) {
+    }
+
+    default void recordRuleHit(Rule rule) {
+    }
+}
@@ -0,0 +1,8 @@
+package comparator.metrics;
+
+public enum Rule {
+    SKIPPED_PATH,
+    IGNORED_ATTRIBUTE,
+    SIMILAR_TIME,
+    IGNORED_ORDER
+}
@@ -0,0 +1,11 @@
+package comparator.metrics;
+
+public enum Stage {
+    PARSE,
+    PREPARE,
+    PRUNE,
+    DIFF,
+    EVALUATE,
+    ANALYZE,
+    REPORT
+}
@@ -0,0 +1,82 @@
+package comparator.report;
+
+import comparator.DifferenceCategory;
+import comparator.diffrence.NonTextDifference;
+import comparator.diffrence.ReportDifference;
+import comparator.diffrence.TextDifference;
+import comparator.similarity.SimilarityResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+public class CsvReportWriter extends ReportWriter {
+
+    private static final String RECORD_SEPARATOR = "\r\n";
+    private static final String SUMMARY_CATEGORY = "SUMMARY";
+
+    public CsvReportWriter(final Path outputPath) throws IOException {
+        super(outputPath);
+        output.write("category,xPath,attributes,expected,actual,description" + RECORD_SEPARATOR);
+    }
+
+    @Override
+    protected void write(final DifferenceCategory category, final ReportDifference difference) throws IOException {
+        final TextDifference textDifference = difference instanceof TextDifference text ? text : null;
+        final NonTextDifference nonTextDifference = difference instanceof NonTextDifference nonText ? nonText : null;
+
+        writeField(category.name());
+        output.write(',');
+        writeField(difference.getNodeXPath());
+        output.write(',');
+        writeField(formatAttributes(difference.getAttributes()));
+        output.write(',');
+        writeField(textDifference != null ? textDifference.getExpectedValue() : null);
+        output.write(',');
+        writeField(textDifference != null ? textDifference.getActualValue() : null);
+        output.write(',');
+        writeField(nonTextDifference != null ? nonTextDifference.getDescription() : null);
+        output.write(RECORD_SEPARATOR);
+    }
+
+    @Override
+    protected void writeSummary(final SimilarityResult similarityResult) throws IOException {
+        writeField(SUMMARY_CATEGORY);
+        output.write(",,,,,");
+        writeField("Control nodes: " + similarityResult.controlXmlNodeCount()
+                + "; Mismatch count: " + similarityResult.mismatchCount()
+                + String.format(Locale.ROOT, "; Similarity: %.2f%%", similarityResult.similarity()));
+        output.write(RECORD_SEPARATOR);
+    }
+
+    private void writeField(final String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            output.write(value);
+            return;
+        }
+
+        output.write('"');
+        output.write(value.replace("\"", "\"\""));
+        output.write('"');
+    }
+
+    private static String formatAttributes(final Map<String, String> attributes) {
+        if (attributes == null) {
+            return null;
+        }
+
+        final StringBuilder builder = new StringBuilder();
+        for (final Map.Entry<String, String> attribute : attributes.entrySet()) {
+            if (!builder.isEmpty()) {
+                builder.append(';');
+            }
+            builder.append(attribute.getKey()).append('=').append(attribute.getValue());
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package comparator.report;
+
+import comparator.DifferenceCategory;
+import comparator.diffrence.NonTextDifference;
+import comparator.diffrence.ReportDifference;
+import comparator.diffrence.TextDifference;
+import comparator.similarity.SimilarityResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+
+public class JsonLinesReportWriter extends ReportWriter {
+
+    public JsonLinesReportWriter(final Path outputPath) throws IOException {
+        super(outputPath);
+    }
+
+    @Override
+    protected void write(final DifferenceCategory category, final ReportDifference difference) throws IOException {
+        output.write("{\"category\":");
+        writeString(category.name());
+        output.write(",\"xPath\":");
+        writeString(difference.getNodeXPath());
+        output.write(",\"attributes\":");
+        writeAttributes(difference.getAttributes());
+
+        if (difference instanceof TextDifference textDifference) {
+            output.write(",\"expected\":");
+            writeString(textDifference.getExpectedValue());
+            output.write(",\"actual\":");
+            writeString(textDifference.getActualValue());
+        } else if (difference instanceof NonTextDifference nonTextDifference) {
+            output.write(",\"description\":");
+            writeString(nonTextDifference.getDescription());
+        }
+        output.write("}\n");
+    }
+
+    @Override
+    protected void writeSummary(final SimilarityResult similarityResult) throws IOException {
+        output.write("{\"summary\":{\"controlNodes\":" + similarityResult.controlXmlNodeCount()
+                + ",\"mismatchCount\":" + similarityResult.mismatchCount()
+                + ",\"similarity\":" + (Double.isFinite(similarityResult.similarity()) ? similarityResult.similarity() : "null")
+                + ",\"counts\":{");
+        final DifferenceCategory[] categories = DifferenceCategory.values();
+        for (int i = 0; i < categories.length; i++) {
+            if (i > 0) {
+                output.write(',');
+            }
+            writeString(categories[i].name());
+            output.write(":" + getCount(categories[i]));
+        }
+        output.write("}}}\n");
+    }
+
+    private void writeAttributes(final Map<String, String> attributes) throws IOException {
+        if (attributes == null) {
+            output.write("{}");
+            return;
+        }
+
+        output.write('{');
+        boolean first = true;
+        for (final Map.Entry<String, String> attribute : attributes.entrySet()) {
+            if (!first) {
+                output.write(',');
+            }
+            first = false;
+            writeString(attribute.getKey());
+            output.write(':');
+            writeString(attribute.getValue());
+        }
+        output.write('}');
+    }
+
+    private void writeString(final String value) throws IOException {
+        if (value == null) {
+            output.write("null");
+            return;
+        }
+
+        output.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char character = value.charAt(i);
+            switch (character) {
+                case '"' -> output.write("\\\"");
+                case '\\' -> output.write("\\\\");
+                case '\n' -> output.write("\\n");
+                case '\r' -> output.write("\\r");
+                case '\t' -> output.write("\\t");
+                default -> {
+                    if (character < 0x20) {
+                        output.write(String.format("\\u%04x", (int) character));
+                    } else {
+                        output.write(character);
+                    }
+                }
+            }
+        }
+        output.write('"');
+    }
+}
@@ -0,0 +1,80 @@
+package comparator.report;
+
+import comparator.DifferenceCategory;
+import comparator.aggregate.DifferenceAggregator;
+import comparator.aggregate.PatternSummary;
+import comparator.diffrence.ReportDifference;
+import comparator.similarity.SimilarityResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+public class PatternReportWriter extends ReportWriter {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final DifferenceAggregator aggregator;
+
+    public PatternReportWriter(final Path outputPath) throws IOException {
+        this(outputPath, new DifferenceAggregator());
+    }
+
+    public PatternReportWriter(final Path outputPath, final DifferenceAggregator aggregator) throws IOException {
+        super(outputPath);
+        this.aggregator = aggregator;
+    }
+
+    @Override
+    protected void write(final DifferenceCategory category, final ReportDifference difference) {
+        aggregator.accept(category, difference);
+    }
+
+    @Override
+    protected void writeSummary(final SimilarityResult similarityResult) throws IOException {
+        output.write("============ XML COMPARISON ============" + LINE_SEPARATOR);
+        output.write("Control nodes: " + similarityResult.controlXmlNodeCount() + LINE_SEPARATOR);
+        output.write("Mismatch count: " + similarityResult.mismatchCount() + LINE_SEPARATOR);
+        output.write(String.format("\nSimilarity: %.2f%%\n", similarityResult.similarity()));
+        output.write("Differences: " + aggregator.getDifferenceCount() + LINE_SEPARATOR);
+        output.write("Patterns: " + aggregator.getPatternCount() + LINE_SEPARATOR);
+
+        final List<PatternSummary> summaries = aggregator.toPatternSummaries();
+        for (final DifferenceCategory category : DifferenceCategory.values()) {
+            boolean headerWritten = false;
+            for (final PatternSummary summary : summaries) {
+                if (summary.pattern().category() != category) {
+                    continue;
+                }
+                if (!headerWritten) {
+                    output.write(sectionHeader(category) + LINE_SEPARATOR);
+                    headerWritten = true;
+                }
+                writePattern(summary);
+            }
+        }
+    }
+
+    private void writePattern(final PatternSummary summary) throws IOException {
+        output.write("+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++" + LINE_SEPARATOR);
+        output.write("Pattern: " + summary.pattern().xPathPattern() + LINE_SEPARATOR);
+        output.write("Signature: " + summary.pattern().signature() + LINE_SEPARATOR);
+        output.write("Count: " + summary.count() + LINE_SEPARATOR);
+        if (summary.maxOvercount() > 0) {
+            output.write("Count overestimated by at most: " + summary.maxOvercount() + LINE_SEPARATOR);
+        }
+        output.write("Examples:" + LINE_SEPARATOR);
+        for (final String sampleXPath : summary.sampleXPaths()) {
+            output.write("  " + sampleXPath + LINE_SEPARATOR);
+        }
+    }
+
+    private static String sectionHeader(final DifferenceCategory category) {
+        return switch (category) {
+            case TEXT -> "\n=== Text difference patterns ===";
+            case ATTRIBUTE -> "\n=== Attribute difference patterns ===";
+            case ORDER -> "\n=== Node order change patterns ===";
+            case OTHER -> "\n=== Other patterns ===";
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package comparator.report;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public enum ReportFormat {
+    TEXT,
+    JSON_LINES,
+    CSV,
+    PATTERNS;
+
+    public static ReportFormat fromFileName(final String fileName) {
+        final String lowerCaseFileName = fileName.toLowerCase();
+        if (lowerCaseFileName.endsWith(".jsonl")) {
+            return JSON_LINES;
+        }
+        if (lowerCaseFileName.endsWith(".csv")) {
+            return CSV;
+        }
+        if (lowerCaseFileName.endsWith(".patterns.txt")) {
+            return PATTERNS;
+        }
+        return TEXT;
+    }
+
+    public ReportWriter open(final Path outputPath) throws IOException {
+        return switch (this) {
+            case TEXT -> new TextReportWriter(outputPath);
+            case JSON_LINES -> new JsonLinesReportWriter(outputPath);
+            case CSV -> new CsvReportWriter(outputPath);
+            case PATTERNS -> new PatternReportWriter(outputPath);
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package comparator.report;
+
+import comparator.DifferenceCategory;
+import comparator.DifferenceSink;
+import comparator.diffrence.ReportDifference;
+import comparator.similarity.SimilarityResult;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public abstract class ReportWriter implements DifferenceSink, Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    protected final Writer output;
+    private final CountingOutputStream countingOutput;
+    private final int[] categoryCounts = new int[DifferenceCategory.values().length];
+
+    protected ReportWriter(final Path outputPath) throws IOException {
+        this.countingOutput = new CountingOutputStream(Files.newOutputStream(outputPath));
+        this.output = new BufferedWriter(new OutputStreamWriter(countingOutput, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    @Override
+    public final void accept(final DifferenceCategory category, final ReportDifference difference) {
+        categoryCounts[category.ordinal()]++;
+        try {
+            write(category, difference);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error during writing report", e);
+        }
+    }
+
+    public int getCount(final DifferenceCategory category) {
+        return categoryCounts[category.ordinal()];
+    }
+
+    public long getBytesWritten() {
+        return countingOutput.getCount();
+    }
+
+    public void finish(final SimilarityResult similarityResult) throws IOException {
+        writeSummary(similarityResult);
+        output.flush();
+    }
+
+    protected abstract void write(DifferenceCategory category, ReportDifference difference) throws IOException;
+
+    protected abstract void writeSummary(SimilarityResult similarityResult) throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        output.close();
+    }
+}
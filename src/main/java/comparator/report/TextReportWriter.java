@@ -0,0 +1,54 @@
+package comparator.report;
+
+import comparator.DifferenceCategory;
+import comparator.diffrence.ReportDifference;
+import comparator.similarity.SimilarityResult;
+import comparator.store.DifferenceStore;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class TextReportWriter extends ReportWriter {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final DifferenceStore differenceStore = new DifferenceStore();
+
+    public TextReportWriter(final Path outputPath) throws IOException {
+        super(outputPath);
+    }
+
+    @Override
+    protected void write(final DifferenceCategory category, final ReportDifference difference) {
+        differenceStore.accept(category, difference);
+    }
+
+    @Override
+    protected void writeSummary(final SimilarityResult similarityResult) throws IOException {
+        output.write("============ XML COMPARISON ============" + LINE_SEPARATOR);
+        output.write("Control nodes: " + similarityResult.controlXmlNodeCount() + LINE_SEPARATOR);
+        output.write("Mismatch count: " + similarityResult.mismatchCount() + LINE_SEPARATOR);
+        output.write(String.format("\nSimilarity: %.2f%%\n", similarityResult.similarity()));
+
+        for (final DifferenceCategory category : DifferenceCategory.values()) {
+            if (differenceStore.getCount(category) == 0) {
+                continue;
+            }
+
+            output.write(sectionHeader(category) + LINE_SEPARATOR);
+            for (final ReportDifference difference : differenceStore.getDifferences(category)) {
+                difference.appendTo(output);
+                output.write(LINE_SEPARATOR);
+            }
+        }
+    }
+
+    private static String sectionHeader(final DifferenceCategory category) {
+        return switch (category) {
+            case TEXT -> "\n=== Text differences ===";
+            case ATTRIBUTE -> "\n=== Attribute differences ===";
+            case ORDER -> "\n=== Node order change ===";
+            case OTHER -> "\n=== Other ===";
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package comparator.rules;
+
+import java.util.Map;
+import java.util.Set;
+
+public record ComparisonRules(Set<String> ignoreNodes, Set<String> timeWithDifferentEnding,
+                              Map<String, String> attributeWithValueToSkip,
+                              Map<String, Set<String>> nodeWithAttributesToSkip,
+                              Map<String, String> matchKeys, boolean ignoreNodeOrder) {
+
+    public static final ComparisonRules DEFAULT = new ComparisonRules(
+            Set.of("toBeIgnored", "tooIgnored"),
+            Set.of("bikId=\"1234\""),
+            Map.of(
+                    "mapping", "not used",
+                    "mapping1", "skipped"
+            ),
+            Map.of(
+                    "time", Set.of("description"),
+                    "time2", Set.of("description")
+            ),
+            Map.of(),
+            false
+    );
+
+    public ComparisonRules withMatchKeys(final Map<String, String> matchKeys, final boolean ignoreNodeOrder) {
+        return new ComparisonRules(ignoreNodes, timeWithDifferentEnding, attributeWithValueToSkip, nodeWithAttributesToSkip,
+                matchKeys, ignoreNodeOrder);
+    }
+}
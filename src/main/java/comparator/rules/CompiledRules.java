@@ -0,0 +1,200 @@
+package comparator.rules;
+
+import comparator.metrics.MetricsRecorder;
+import comparator.metrics.Rule;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xmlunit.diff.Comparison;
+import org.xmlunit.diff.ComparisonResult;
+import org.xmlunit.diff.ComparisonType;
+
+import javax.xml.namespace.QName;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+public class CompiledRules {
+
+    private static final int COMPILED_RULES_CAPACITY = 64;
+    private static final Map<ComparisonRules, CompiledRules> COMPILED_RULES = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<ComparisonRules, CompiledRules> eldest) {
+            return size() > COMPILED_RULES_CAPACITY;
+        }
+    };
+    private static final int NUMBER_OF_DIGITS_TO_CHECK = 6;
+
+    private final ComparisonRules rules;
+    private final Set<String> ignoredNodes = new HashSet<>();
+    private final Map<String, Set<String>> ignoredAttributesByElement = new HashMap<>();
+    private final Map<String, Set<String>> skippingAttributeValues = new HashMap<>();
+    private final Map<String, Set<String>> timeAttributeValues = new HashMap<>();
+    private final Map<ComparisonType, TypeRule> typeRules = new EnumMap<>(ComparisonType.class);
+    private final Map<ComparisonType, Rule> typeRuleNames = new EnumMap<>(ComparisonType.class);
+
+    private CompiledRules(final ComparisonRules rules) {
+        this.rules = rules;
+
+        rules.ignoreNodes().forEach(node -> ignoredNodes.add(node.intern()));
+        rules.nodeWithAttributesToSkip().forEach((element, attributes) -> attributes.forEach(attribute ->
+                ignoredAttributesByElement.computeIfAbsent(element.intern(), key -> new HashSet<>()).add(attribute.intern())));
+        rules.attributeWithValueToSkip().forEach((attribute, value) ->
+                skippingAttributeValues.computeIfAbsent(attribute.intern(), key -> new HashSet<>()).add(value));
+        rules.timeWithDifferentEnding().forEach(this::addTimeAttribute);
+
+        if (!ignoredAttributesByElement.isEmpty()) {
+            addTypeRule(ComparisonType.ATTR_VALUE, Rule.IGNORED_ATTRIBUTE, this::evaluateAttributeValue);
+            addTypeRule(ComparisonType.ATTR_NAME_LOOKUP, Rule.IGNORED_ATTRIBUTE, this::evaluateAttributeNameLookup);
+        }
+        if (!timeAttributeValues.isEmpty()) {
+            addTypeRule(ComparisonType.TEXT_VALUE, Rule.SIMILAR_TIME, this::evaluateTextValue);
+        }
+        if (rules.ignoreNodeOrder()) {
+            addTypeRule(ComparisonType.CHILD_NODELIST_SEQUENCE, Rule.IGNORED_ORDER, (comparison, comparisonResult) -> ComparisonResult.SIMILAR);
+        }
+    }
+
+    public static CompiledRules of(final ComparisonRules rules) {
+        synchronized (COMPILED_RULES) {
+            return COMPILED_RULES.computeIfAbsent(rules, CompiledRules::new);
+        }
+    }
+
+    public static boolean isValidTimeAttribute(final String attribute) {
+        final int separatorIndex = attribute.indexOf('=');
+        return separatorIndex > 0
+                && attribute.length() >= separatorIndex + 4
+                && attribute.charAt(separatorIndex + 1) == '"'
+                && attribute.endsWith("\"")
+                && attribute.indexOf('"', separatorIndex + 2) == attribute.length() - 1;
+    }
+
+    public ComparisonRules getRules() {
+        return rules;
+    }
+
+    public ComparisonResult evaluate(final Comparison comparison, final ComparisonResult comparisonResult) {
+        return evaluate(comparison, comparisonResult, MetricsRecorder.NOOP);
+    }
+
+    public ComparisonResult evaluate(final Comparison comparison, final ComparisonResult comparisonResult, final MetricsRecorder metrics) {
+        final TypeRule typeRule = typeRules.get(comparison.getType());
+        if (typeRule == null) {
+            return comparisonResult;
+        }
+
+        final ComparisonResult evaluatedResult = typeRule.evaluate(comparison, comparisonResult);
+        if (comparisonResult == ComparisonResult.DIFFERENT && evaluatedResult != ComparisonResult.DIFFERENT) {
+            metrics.recordRuleHit(typeRuleNames.get(comparison.getType()));
+        }
+        return evaluatedResult;
+    }
+
+    public boolean isNodeIgnored(final String elementName) {
+        return ignoredNodes.contains(elementName);
+    }
+
+    public boolean isNodeIgnored(final Node node) {
+        return node.getNodeType() == Node.ELEMENT_NODE && ignoredNodes.contains(node.getNodeName());
+    }
+
+    public boolean isAttributeIgnored(final String elementName, final String attributeName) {
+        final Set<String> ignoredAttributes = ignoredAttributesByElement.get(elementName);
+        return ignoredAttributes != null && ignoredAttributes.contains(attributeName);
+    }
+
+    public boolean isSkippingAttribute(final String attributeName, final String attributeValue) {
+        final Set<String> values = skippingAttributeValues.get(attributeName);
+        return values != null && values.contains(attributeValue);
+    }
+
+    public boolean isTimeAttribute(final String attributeName, final String attributeValue) {
+        final Set<String> values = timeAttributeValues.get(attributeName);
+        return values != null && values.contains(attributeValue);
+    }
+
+    public boolean hasSkippingAttribute(final Node node) {
+        return node instanceof Element element && hasAnyAttribute(element, skippingAttributeValues);
+    }
+
+    public static boolean isSimilarTime(String controlValue, String testValue) {
+        if (controlValue.length() > NUMBER_OF_DIGITS_TO_CHECK && testValue.length() > NUMBER_OF_DIGITS_TO_CHECK) {
+            return controlValue.regionMatches(0, testValue, 0, NUMBER_OF_DIGITS_TO_CHECK);
+        }
+        return controlValue.equals(testValue);
+    }
+
+    private ComparisonResult evaluateAttributeValue(final Comparison comparison, final ComparisonResult comparisonResult) {
+        return isIgnoredAttribute(comparison.getControlDetails().getTarget()) || isIgnoredAttribute(comparison.getTestDetails().getTarget())
+                ? ComparisonResult.SIMILAR
+                : comparisonResult;
+    }
+
+    private ComparisonResult evaluateAttributeNameLookup(final Comparison comparison, final ComparisonResult comparisonResult) {
+        return isIgnoredAttribute(comparison.getControlDetails()) || isIgnoredAttribute(comparison.getTestDetails())
+                ? ComparisonResult.SIMILAR
+                : comparisonResult;
+    }
+
+    private ComparisonResult evaluateTextValue(final Comparison comparison, final ComparisonResult comparisonResult) {
+        final Node controlTarget = comparison.getControlDetails().getTarget();
+        if (controlTarget == null || !(controlTarget.getParentNode() instanceof Element parent)
+                || !hasAnyAttribute(parent, timeAttributeValues)) {
+            return comparisonResult;
+        }
+
+        final String controlValue = String.valueOf(comparison.getControlDetails().getValue());
+        final String testValue = String.valueOf(comparison.getTestDetails().getValue());
+        return isSimilarTime(controlValue, testValue) ? ComparisonResult.SIMILAR : ComparisonResult.DIFFERENT;
+    }
+
+    private boolean isIgnoredAttribute(final Node target) {
+        return target instanceof Attr attribute && attribute.getOwnerElement() != null
+                && isAttributeIgnored(attribute.getOwnerElement().getNodeName(), attribute.getNodeName());
+    }
+
+    private boolean isIgnoredAttribute(final Comparison.Detail detail) {
+        return detail.getTarget() != null && detail.getValue() instanceof QName attributeName
+                && isAttributeIgnored(detail.getTarget().getNodeName(), toNodeName(attributeName));
+    }
+
+    private void addTypeRule(final ComparisonType type, final Rule ruleName, final TypeRule typeRule) {
+        typeRules.put(type, typeRule);
+        typeRuleNames.put(type, ruleName);
+    }
+
+    private void addTimeAttribute(final String attribute) {
+        if (!isValidTimeAttribute(attribute)) {
+            throw new IllegalArgumentException("Invalid time attribute rule '" + attribute + "', expected name=\"value\"");
+        }
+
+        final int separatorIndex = attribute.indexOf('=');
+        final String name = attribute.substring(0, separatorIndex);
+        final String quotedValue = attribute.substring(separatorIndex + 1);
+        final String value = quotedValue.substring(1, quotedValue.length() - 1);
+        timeAttributeValues.computeIfAbsent(name.intern(), key -> new HashSet<>()).add(value);
+    }
+
+    private static boolean hasAnyAttribute(final Element element, final Map<String, Set<String>> attributeValues) {
+        for (final Map.Entry<String, Set<String>> attributeValue : attributeValues.entrySet()) {
+            final Attr attribute = element.getAttributeNode(attributeValue.getKey());
+            if (attribute != null && attributeValue.getValue().contains(attribute.getValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String toNodeName(final QName name) {
+        return name.getPrefix().isEmpty() ? name.getLocalPart() : name.getPrefix() + ":" + name.getLocalPart();
+    }
+
+    @FunctionalInterface
+    private interface TypeRule {
+        ComparisonResult evaluate(Comparison comparison, ComparisonResult comparisonResult);
+    }
+}
@@ -0,0 +1,73 @@
+package comparator.rules;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public enum RulesLoader {
+    ;
+    private static final String IGNORE_NODES = "ignore.nodes";
+    private static final String IGNORE_NODE_ORDER = "ignore.node.order";
+    private static final String TIME_ATTRIBUTE_PREFIX = "time.attribute.";
+    private static final String SKIP_ATTRIBUTE_PREFIX = "skip.attribute.";
+    private static final String IGNORE_ATTRIBUTES_PREFIX = "ignore.attributes.";
+    private static final String MATCH_KEY_PREFIX = "match.key.";
+
+    public static ComparisonRules load(final Path rulesFile) throws IOException {
+        final Properties properties = new Properties();
+        try (final Reader reader = Files.newBufferedReader(rulesFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+
+        final Set<String> timeWithDifferentEnding = new HashSet<>();
+        final Map<String, String> attributeWithValueToSkip = new HashMap<>();
+        final Map<String, Set<String>> nodeWithAttributesToSkip = new HashMap<>();
+        final Map<String, String> matchKeys = new HashMap<>();
+
+        for (final String key : properties.stringPropertyNames()) {
+            final String value = properties.getProperty(key).trim();
+
+            if (key.startsWith(TIME_ATTRIBUTE_PREFIX)) {
+                final String timeAttribute = key.substring(TIME_ATTRIBUTE_PREFIX.length()) + "=\"" + value + "\"";
+                if (!CompiledRules.isValidTimeAttribute(timeAttribute)) {
+                    throw new IOException("Invalid time attribute rule '" + key + "=" + value + "' in " + rulesFile
+                            + ", expected " + TIME_ATTRIBUTE_PREFIX + "<name>=<value> with a non-empty value and no quotes");
+                }
+                timeWithDifferentEnding.add(timeAttribute);
+            } else if (key.startsWith(SKIP_ATTRIBUTE_PREFIX)) {
+                attributeWithValueToSkip.put(key.substring(SKIP_ATTRIBUTE_PREFIX.length()), value);
+            } else if (key.startsWith(IGNORE_ATTRIBUTES_PREFIX)) {
+                nodeWithAttributesToSkip.put(key.substring(IGNORE_ATTRIBUTES_PREFIX.length()), splitList(value));
+            } else if (key.startsWith(MATCH_KEY_PREFIX)) {
+                matchKeys.put(key.substring(MATCH_KEY_PREFIX.length()), value);
+            } else if (!key.equals(IGNORE_NODES) && !key.equals(IGNORE_NODE_ORDER)) {
+                throw new IOException("Unknown rule '" + key + "' in " + rulesFile);
+            }
+        }
+
+        return new ComparisonRules(
+                splitList(properties.getProperty(IGNORE_NODES, "")),
+                Set.copyOf(timeWithDifferentEnding),
+                Map.copyOf(attributeWithValueToSkip),
+                Map.copyOf(nodeWithAttributesToSkip),
+                Map.copyOf(matchKeys),
+                Boolean.parseBoolean(properties.getProperty(IGNORE_NODE_ORDER, "false").trim())
+        );
+    }
+
+    private static Set<String> splitList(final String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,21 @@
+package comparator.sharding;
+
+import comparator.DifferenceResult;
+
+public interface ShardCache {
+
+    ShardCache NONE = new ShardCache() {
+        @Override
+        public DifferenceResult get(final long controlHash, final long testHash) {
+            return null;
+        }
+
+        @Override
+        public void put(final long controlHash, final long testHash, final DifferenceResult shardResult) {
+        }
+    };
+
+    DifferenceResult get(long controlHash, long testHash);
+
+    void put(long controlHash, long testHash, DifferenceResult shardResult);
+}
@@ -0,0 +1,283 @@
+package comparator.sharding;
+
+import comparator.DifferenceAnalyzer;
+import comparator.DifferenceFinder;
+import comparator.DifferenceResult;
+import comparator.XmlUtils;
+import comparator.diffrence.NonTextDifference;
+import comparator.diffrence.ReportDifference;
+import comparator.diffrence.TextDifference;
+import comparator.fingerprint.SubtreeFingerprints;
+import comparator.fingerprint.SubtreeHasher;
+import comparator.rules.ComparisonRules;
+import comparator.rules.CompiledRules;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Predicate;
+
+import static org.xmlunit.diff.ComparisonType.CHILD_NODELIST_LENGTH;
+
+public class ShardedComparator {
+
+    private static final String NO_VALUE = "NULL";
+    private static final SubtreeHasher SHARD_HASHER = new SubtreeHasher(
+            new ComparisonRules(Set.of(), Set.of(), Map.of(), Map.of(), Map.of(), false), false, false);
+
+    public static DifferenceResult compare(final Document controlXml, final Document testXml, final ComparisonRules rules,
+                                           final String keyAttribute, final ForkJoinPool pool) {
+        return compare(controlXml, testXml, rules, keyAttribute, pool, ShardCache.NONE);
+    }
+
+    public static DifferenceResult compare(final Document controlXml, final Document testXml, final ComparisonRules rules,
+                                           final String keyAttribute, final ForkJoinPool pool, final ShardCache shardCache) {
+        final Element controlRoot = controlXml.getDocumentElement();
+        final Element testRoot = testXml.getDocumentElement();
+        final String rootXPath = "/" + controlRoot.getNodeName() + "[1]";
+
+        if (!controlRoot.getNodeName().equals(testRoot.getNodeName())) {
+            return DifferenceAnalyzer.analyzeDifferences(DifferenceFinder.findDifferences(controlXml, testXml, rules));
+        }
+
+        final CompiledRules compiledRules = CompiledRules.of(rules);
+        final List<Shard> controlShards = split(controlRoot, keyAttribute, compiledRules);
+        final Map<String, Shard> testShards = new LinkedHashMap<>();
+        split(testRoot, keyAttribute, compiledRules).forEach(shard -> testShards.put(shard.key(), shard));
+
+        final ShardSide controlSide = ShardSide.of(controlRoot, attribute -> false, shardCache);
+        final ShardSide testSide = ShardSide.of(testRoot, attribute ->
+                compiledRules.isSkippingAttribute(attribute.getNodeName(), attribute.getNodeValue()), shardCache);
+
+        final List<ShardPair> pairs = new ArrayList<>();
+        pairs.add(new ShardPair(rootXPath, rootXPath, null, null, null));
+
+        final List<ReportDifference> missingShardDifferences = new ArrayList<>();
+        int matchedShards = 0;
+        for (final Shard controlShard : controlShards) {
+            final Shard testShard = testShards.remove(controlShard.key());
+            if (testShard == null) {
+                missingShardDifferences.add(new TextDifference(controlShard.xPath(rootXPath), XmlUtils.getNodeAttributes(controlShard.element()),
+                        null, controlShard.element().getNodeName(), NO_VALUE));
+                continue;
+            }
+
+            matchedShards++;
+            final ReportDifference orderDifference = (controlShard.position() != testShard.position())
+                    ? new NonTextDifference(controlShard.xPath(rootXPath), XmlUtils.getNodeAttributes(controlShard.element()),
+                    XmlUtils.getNodeAttributes(testShard.element()), "Different order of nodes")
+                    : null;
+            pairs.add(new ShardPair(controlShard.xPath(rootXPath), rootXPath + "/" + controlShard.element().getNodeName() + "[1]",
+                    orderDifference, controlShard.element(), testShard.element()));
+        }
+
+        final Map<String, Integer> controlNameCounts = countNames(controlShards);
+        for (final Shard testShard : testShards.values()) {
+            if (testShard.index() <= controlNameCounts.getOrDefault(testShard.element().getNodeName(), 0)) {
+                missingShardDifferences.add(new TextDifference(testShard.xPath(rootXPath), null, XmlUtils.getNodeAttributes(testShard.element()),
+                        NO_VALUE, testShard.element().getNodeName()));
+                matchedShards++;
+            }
+        }
+
+        final List<ReportDifference> rootLengthDifferences = new ArrayList<>();
+        if (controlShards.size() != matchedShards) {
+            rootLengthDifferences.add(new NonTextDifference(rootXPath, XmlUtils.getNodeAttributes(controlRoot),
+                    XmlUtils.getNodeAttributes(testRoot), "Difference type: " + CHILD_NODELIST_LENGTH));
+        }
+
+        final List<ShardTask> tasks = new ArrayList<>(pairs.size());
+        for (final ShardPair pair : pairs) {
+            tasks.add(startShard(pair, controlSide, testSide, rules, pool, shardCache));
+        }
+
+        final List<DifferenceResult> shardResults = new ArrayList<>();
+        shardResults.add(new DifferenceResult(List.of(), List.of(), List.of(), rootLengthDifferences));
+        tasks.forEach(task -> shardResults.add(relocate(task.pair(), task.join(shardCache))));
+        shardResults.add(new DifferenceResult(missingShardDifferences, List.of(), List.of(), List.of()));
+
+        return merge(shardResults);
+    }
+
+    private static ShardTask startShard(final ShardPair pair, final ShardSide controlSide, final ShardSide testSide,
+                                        final ComparisonRules rules, final ForkJoinPool pool, final ShardCache shardCache) {
+        if (shardCache == ShardCache.NONE) {
+            return new ShardTask(pair, 0L, 0L, null, submitShard(pair, controlSide, testSide, rules, pool));
+        }
+
+        final long controlHash = controlSide.hashOf(pair.controlElement());
+        final long testHash = testSide.hashOf(pair.testElement());
+        final DifferenceResult cachedResult = shardCache.get(controlHash, testHash);
+        return new ShardTask(pair, controlHash, testHash, cachedResult,
+                (cachedResult == null) ? submitShard(pair, controlSide, testSide, rules, pool) : null);
+    }
+
+    private static ForkJoinTask<DifferenceResult> submitShard(final ShardPair pair, final ShardSide controlSide,
+                                                              final ShardSide testSide, final ComparisonRules rules,
+                                                              final ForkJoinPool pool) {
+        final Document controlShard = controlSide.toShardDocument(pair.controlElement());
+        final Document testShard = testSide.toShardDocument(pair.testElement());
+        return pool.submit(() -> DifferenceAnalyzer.analyzeDifferences(DifferenceFinder.findDifferences(controlShard, testShard, rules)));
+    }
+
+    private static DifferenceResult relocate(final ShardPair pair, final DifferenceResult shardResult) {
+        final List<ReportDifference> orderDifferences = new ArrayList<>();
+        if (pair.orderDifference() != null) {
+            orderDifferences.add(pair.orderDifference());
+        }
+        orderDifferences.addAll(relocate(shardResult.orderDifferences(), pair.localXPath(), pair.xPath()));
+
+        return new DifferenceResult(
+                relocate(shardResult.textDifferences(), pair.localXPath(), pair.xPath()),
+                relocate(shardResult.attributeDifferences(), pair.localXPath(), pair.xPath()),
+                orderDifferences,
+                relocate(shardResult.otherDifferences(), pair.localXPath(), pair.xPath()));
+    }
+
+    private static long hashOf(final Document shardDocument) {
+        return SHARD_HASHER.hash(shardDocument).get(shardDocument.getDocumentElement());
+    }
+
+    private static List<ReportDifference> relocate(final List<ReportDifference> differences, final String shardLocalXPath,
+                                                   final String xPath) {
+        if (shardLocalXPath.equals(xPath)) {
+            return differences;
+        }
+
+        final List<ReportDifference> relocated = new ArrayList<>(differences.size());
+        for (final ReportDifference difference : differences) {
+            final String nodeXPath = difference.getNodeXPath();
+            if (nodeXPath != null && nodeXPath.startsWith(shardLocalXPath) &&
+                    (nodeXPath.length() == shardLocalXPath.length() || nodeXPath.charAt(shardLocalXPath.length()) == '/')) {
+                relocated.add(difference.withNodeXPath(xPath + nodeXPath.substring(shardLocalXPath.length())));
+            } else {
+                relocated.add(difference);
+            }
+        }
+        return relocated;
+    }
+
+    private static DifferenceResult merge(final List<DifferenceResult> shardResults) {
+        final List<ReportDifference> textDifferences = new ArrayList<>();
+        final List<ReportDifference> attributeDifferences = new ArrayList<>();
+        final List<ReportDifference> orderDifferences = new ArrayList<>();
+        final List<ReportDifference> otherDifferences = new ArrayList<>();
+
+        for (final DifferenceResult shardResult : shardResults) {
+            textDifferences.addAll(shardResult.textDifferences());
+            attributeDifferences.addAll(shardResult.attributeDifferences());
+            orderDifferences.addAll(shardResult.orderDifferences());
+            otherDifferences.addAll(shardResult.otherDifferences());
+        }
+
+        return new DifferenceResult(textDifferences, attributeDifferences, orderDifferences, otherDifferences);
+    }
+
+    private static List<Shard> split(final Element root, final String keyAttribute, final CompiledRules compiledRules) {
+        final List<Shard> shards = new ArrayList<>();
+        final Map<String, Integer> nameCounters = new HashMap<>();
+
+        for (Node child = root.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE && !compiledRules.isNodeIgnored(child)) {
+                final Element element = (Element) child;
+                final int index = nameCounters.merge(element.getNodeName(), 1, Integer::sum);
+                final String key = (keyAttribute != null && element.hasAttribute(keyAttribute))
+                        ? element.getNodeName() + "@" + element.getAttribute(keyAttribute)
+                        : element.getNodeName() + "[" + index + "]";
+                shards.add(new Shard(key, element, index, shards.size()));
+            }
+        }
+        return shards;
+    }
+
+    private static Map<String, Integer> countNames(final List<Shard> shards) {
+        final Map<String, Integer> nameCounts = new HashMap<>();
+        shards.forEach(shard -> nameCounts.merge(shard.element().getNodeName(), 1, Integer::sum));
+        return nameCounts;
+    }
+
+    private record Shard(String key, Element element, int index, int position) {
+
+        private String xPath(final String rootXPath) {
+            return rootXPath + "/" + element.getNodeName() + "[" + index + "]";
+        }
+    }
+
+    private record ShardPair(String xPath, String localXPath, ReportDifference orderDifference,
+                             Element controlElement, Element testElement) {
+    }
+
+    private record ShardTask(ShardPair pair, long controlHash, long testHash, DifferenceResult cachedResult,
+                             ForkJoinTask<DifferenceResult> diff) {
+
+        private DifferenceResult join(final ShardCache shardCache) {
+            if (cachedResult != null) {
+                return cachedResult;
+            }
+
+            final DifferenceResult shardResult = diff.join();
+            shardCache.put(controlHash, testHash, shardResult);
+            return shardResult;
+        }
+    }
+
+    private record ShardSide(Element root, Predicate<Node> retainedRootAttributes, SubtreeFingerprints fingerprints,
+                             long shardRootHash) {
+
+        private static ShardSide of(final Element root, final Predicate<Node> retainedRootAttributes, final ShardCache shardCache) {
+            final ShardSide side = new ShardSide(root, retainedRootAttributes, null, 0L);
+            if (shardCache == ShardCache.NONE) {
+                return side;
+            }
+            return new ShardSide(root, retainedRootAttributes, SHARD_HASHER.hash(root.getOwnerDocument()),
+                    ShardedComparator.hashOf(side.toShardRootDocument()));
+        }
+
+        private long hashOf(final Element shardElement) {
+            return (shardElement == null)
+                    ? ShardedComparator.hashOf(toShardDocument(null))
+                    : SubtreeHasher.combine(shardRootHash, fingerprints.get(shardElement));
+        }
+
+        private Document toShardDocument(final Element shardElement) {
+            if (shardElement != null) {
+                final Document shardDocument = toShardRootDocument();
+                shardDocument.getDocumentElement().appendChild(shardDocument.importNode(shardElement, true));
+                return shardDocument;
+            }
+
+            final Document shardDocument = XmlUtils.newDocument();
+            final Node shardRoot = shardDocument.appendChild(shardDocument.importNode(root, false));
+            for (Node child = root.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (child.getNodeType() != Node.ELEMENT_NODE) {
+                    shardRoot.appendChild(shardDocument.importNode(child, true));
+                }
+            }
+            return shardDocument;
+        }
+
+        private Document toShardRootDocument() {
+            final Document shardDocument = XmlUtils.newDocument();
+            final Element shardRoot = (Element) shardDocument.appendChild(shardDocument.importNode(root, false));
+
+            final NamedNodeMap attributes = shardRoot.getAttributes();
+            for (int i = attributes.getLength() - 1; i >= 0; i--) {
+                final Node attribute = attributes.item(i);
+                if (!retainedRootAttributes.test(attribute)) {
+                    shardRoot.removeAttributeNode((Attr) attribute);
+                }
+            }
+            return shardDocument;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package comparator.similarity;
+
+import java.util.Map;
+
+public record ControlNodeCounts(int elementCount, Map<String, Integer> subtreeElementCounts) {
+}
@@ -1,12 +1,20 @@
 package comparator.similarity;
 
 import comparator.XmlUtils;
+import comparator.tree.CompactDocument;
 import org.w3c.dom.Document;
 
 public class SimilarityCalculator {
 
     public static SimilarityResult calculate(final Document controlXmlDocument, final int textDifferencesSize) {
-        final int controlXmlNodeCount = XmlUtils.countNodes(controlXmlDocument);
+        return calculate(XmlUtils.countNodes(controlXmlDocument), textDifferencesSize);
+    }
+
+    public static SimilarityResult calculate(final CompactDocument controlXmlDocument, final int textDifferencesSize) {
+        return calculate(controlXmlDocument.getElementCount(), textDifferencesSize);
+    }
+
+    public static SimilarityResult calculate(final int controlXmlNodeCount, final int textDifferencesSize) {
         final int correctNodeCount = controlXmlNodeCount - textDifferencesSize;
         final double similarity = ((double) (correctNodeCount) / controlXmlNodeCount) * 100;
         return new SimilarityResult(controlXmlNodeCount, correctNodeCount, textDifferencesSize, similarity);
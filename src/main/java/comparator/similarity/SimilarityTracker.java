@@ -0,0 +1,75 @@
+package comparator.similarity;
+
+import comparator.DifferenceCategory;
+import comparator.DifferenceSink;
+import comparator.diffrence.ReportDifference;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SimilarityTracker implements DifferenceSink {
+
+    private static final int SUBTREE_DEPTH = 2;
+
+    private final DifferenceSink delegate;
+    private final int[] mismatchCounts = new int[DifferenceCategory.values().length];
+    private final Map<String, Integer> subtreeMismatchCounts = new HashMap<>();
+
+    public SimilarityTracker(final DifferenceSink delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void accept(final DifferenceCategory category, final ReportDifference difference) {
+        mismatchCounts[category.ordinal()]++;
+        if (category == DifferenceCategory.TEXT) {
+            final String subtreeXPath = subtreeXPathOf(difference.getNodeXPath());
+            if (subtreeXPath != null) {
+                subtreeMismatchCounts.merge(subtreeXPath, 1, Integer::sum);
+            }
+        }
+        delegate.accept(category, difference);
+    }
+
+    public int getMismatchCount(final DifferenceCategory category) {
+        return mismatchCounts[category.ordinal()];
+    }
+
+    public SimilarityResult toSimilarityResult(final ControlNodeCounts nodeCounts) {
+        return SimilarityCalculator.calculate(nodeCounts.elementCount(), getMismatchCount(DifferenceCategory.TEXT));
+    }
+
+    public List<SubtreeScore> toSubtreeScores(final ControlNodeCounts nodeCounts) {
+        final List<SubtreeScore> subtreeScores = new ArrayList<>(nodeCounts.subtreeElementCounts().size());
+        nodeCounts.subtreeElementCounts().forEach((xPath, nodeCount) -> {
+            final int mismatchCount = Math.min(subtreeMismatchCounts.getOrDefault(xPath, 0), nodeCount);
+            subtreeScores.add(new SubtreeScore(xPath, nodeCount, mismatchCount,
+                    SimilarityCalculator.calculate(nodeCount, mismatchCount).similarity()));
+        });
+        return subtreeScores;
+    }
+
+    public double toWeightedSimilarity(final ControlNodeCounts nodeCounts) {
+        return toSubtreeScores(nodeCounts).stream()
+                .mapToDouble(SubtreeScore::similarity)
+                .average()
+                .orElseGet(() -> toSimilarityResult(nodeCounts).similarity());
+    }
+
+    private static String subtreeXPathOf(final String xPath) {
+        if (xPath == null || !xPath.startsWith("/")) {
+            return null;
+        }
+
+        int separatorIndex = 0;
+        for (int depth = 0; depth < SUBTREE_DEPTH; depth++) {
+            separatorIndex = xPath.indexOf('/', separatorIndex + 1);
+            if (separatorIndex < 0) {
+                return depth == SUBTREE_DEPTH - 1 ? xPath : null;
+            }
+        }
+        return xPath.substring(0, separatorIndex);
+    }
+}
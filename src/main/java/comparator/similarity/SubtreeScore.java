@@ -0,0 +1,4 @@
+package comparator.similarity;
+
+public record SubtreeScore(String xPath, int nodeCount, int mismatchCount, double similarity) {
+}
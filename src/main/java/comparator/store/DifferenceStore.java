@@ -0,0 +1,144 @@
+package comparator.store;
+
+import comparator.DifferenceCategory;
+import comparator.DifferenceResult;
+import comparator.DifferenceSink;
+import comparator.diffrence.NonTextDifference;
+import comparator.diffrence.ReportDifference;
+import comparator.diffrence.TextDifference;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+public class DifferenceStore implements DifferenceSink {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final byte TEXT_DIFFERENCE = 0;
+    private static final byte NON_TEXT_DIFFERENCE = 1;
+
+    private final PathTable paths = new PathTable();
+    private final InternTable<Map<String, String>> attributeSets =
+            new InternTable<>(attributes -> Collections.unmodifiableMap(new LinkedHashMap<>(attributes)));
+    private final InternTable<String> values = new InternTable<>();
+
+    private byte[] kinds = new byte[INITIAL_CAPACITY];
+    private int[] pathIds = new int[INITIAL_CAPACITY];
+    private int[] controlAttributeSetIds = new int[INITIAL_CAPACITY];
+    private int[] testAttributeSetIds = new int[INITIAL_CAPACITY];
+    private int[] firstValueIds = new int[INITIAL_CAPACITY];
+    private int[] secondValueIds = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private final int[][] categoryIndexes = new int[DifferenceCategory.values().length][INITIAL_CAPACITY];
+    private final int[] categoryCounts = new int[DifferenceCategory.values().length];
+
+    @Override
+    public void accept(final DifferenceCategory category, final ReportDifference difference) {
+        ensureCapacity();
+
+        pathIds[size] = paths.intern(difference.getNodeXPath());
+        controlAttributeSetIds[size] = attributeSets.intern(difference.getControlNodeAttributes());
+        testAttributeSetIds[size] = attributeSets.intern(difference.getTestNodeAttributes());
+
+        if (difference instanceof TextDifference textDifference) {
+            kinds[size] = TEXT_DIFFERENCE;
+            firstValueIds[size] = values.intern(textDifference.getExpectedValue());
+            secondValueIds[size] = values.intern(textDifference.getActualValue());
+        } else if (difference instanceof NonTextDifference nonTextDifference) {
+            kinds[size] = NON_TEXT_DIFFERENCE;
+            firstValueIds[size] = values.intern(nonTextDifference.getDescription());
+            secondValueIds[size] = InternTable.NO_VALUE;
+        } else {
+            throw new IllegalArgumentException("Unsupported difference type: " + difference.getClass().getName());
+        }
+
+        addToCategory(category, size);
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCount(final DifferenceCategory category) {
+        return categoryCounts[category.ordinal()];
+    }
+
+    public List<ReportDifference> getDifferences(final DifferenceCategory category) {
+        return new CategoryView(category.ordinal());
+    }
+
+    public DifferenceResult toDifferenceResult() {
+        return new DifferenceResult(getDifferences(DifferenceCategory.TEXT), getDifferences(DifferenceCategory.ATTRIBUTE),
+                getDifferences(DifferenceCategory.ORDER), getDifferences(DifferenceCategory.OTHER));
+    }
+
+    public void forEach(final DifferenceSink sink) {
+        for (final DifferenceCategory category : DifferenceCategory.values()) {
+            final int[] indexes = categoryIndexes[category.ordinal()];
+            for (int i = 0; i < categoryCounts[category.ordinal()]; i++) {
+                sink.accept(category, materialize(indexes[i]));
+            }
+        }
+    }
+
+    private ReportDifference materialize(final int index) {
+        final String nodeXPath = paths.get(pathIds[index]);
+        final Map<String, String> controlNodeAttributes = attributeSets.get(controlAttributeSetIds[index]);
+        final Map<String, String> testNodeAttributes = attributeSets.get(testAttributeSetIds[index]);
+
+        return kinds[index] == TEXT_DIFFERENCE
+                ? new TextDifference(nodeXPath, controlNodeAttributes, testNodeAttributes,
+                values.get(firstValueIds[index]), values.get(secondValueIds[index]))
+                : new NonTextDifference(nodeXPath, controlNodeAttributes, testNodeAttributes, values.get(firstValueIds[index]));
+    }
+
+    private void ensureCapacity() {
+        if (size < kinds.length) {
+            return;
+        }
+
+        final int capacity = kinds.length * 2;
+        kinds = Arrays.copyOf(kinds, capacity);
+        pathIds = Arrays.copyOf(pathIds, capacity);
+        controlAttributeSetIds = Arrays.copyOf(controlAttributeSetIds, capacity);
+        testAttributeSetIds = Arrays.copyOf(testAttributeSetIds, capacity);
+        firstValueIds = Arrays.copyOf(firstValueIds, capacity);
+        secondValueIds = Arrays.copyOf(secondValueIds, capacity);
+    }
+
+    private void addToCategory(final DifferenceCategory category, final int index) {
+        final int ordinal = category.ordinal();
+        if (categoryCounts[ordinal] == categoryIndexes[ordinal].length) {
+            categoryIndexes[ordinal] = Arrays.copyOf(categoryIndexes[ordinal], categoryCounts[ordinal] * 2);
+        }
+        categoryIndexes[ordinal][categoryCounts[ordinal]++] = index;
+    }
+
+    private class CategoryView extends AbstractList<ReportDifference> implements RandomAccess {
+
+        private final int ordinal;
+
+        private CategoryView(final int ordinal) {
+            this.ordinal = ordinal;
+        }
+
+        @Override
+        public ReportDifference get(final int index) {
+            if (index < 0 || index >= categoryCounts[ordinal]) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return materialize(categoryIndexes[ordinal][index]);
+        }
+
+        @Override
+        public int size() {
+            return categoryCounts[ordinal];
+        }
+    }
+}
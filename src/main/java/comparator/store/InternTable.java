@@ -0,0 +1,49 @@
+package comparator.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+class InternTable<T> {
+
+    static final int NO_VALUE = -1;
+
+    private final Map<T, Integer> ids = new HashMap<>();
+    private final List<T> values = new ArrayList<>();
+    private final UnaryOperator<T> canonicalizer;
+
+    InternTable() {
+        this(UnaryOperator.identity());
+    }
+
+    InternTable(final UnaryOperator<T> canonicalizer) {
+        this.canonicalizer = canonicalizer;
+    }
+
+    int intern(final T value) {
+        if (value == null) {
+            return NO_VALUE;
+        }
+
+        final Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+
+        final T canonicalValue = canonicalizer.apply(value);
+        final int newId = values.size();
+        values.add(canonicalValue);
+        ids.put(canonicalValue, newId);
+        return newId;
+    }
+
+    T get(final int id) {
+        return id == NO_VALUE ? null : values.get(id);
+    }
+
+    int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,69 @@
+package comparator.store;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+class PathTable {
+
+    private static final char SEPARATOR = '/';
+
+    private final InternTable<String> segments = new InternTable<>();
+    private final Map<Long, Integer> children = new HashMap<>();
+    private int[] parents = new int[64];
+    private int[] segmentIds = new int[64];
+    private int size;
+
+    int intern(final String xPath) {
+        if (xPath == null) {
+            return InternTable.NO_VALUE;
+        }
+
+        int pathId = InternTable.NO_VALUE;
+        int segmentStart = 0;
+        while (true) {
+            final int segmentEnd = xPath.indexOf(SEPARATOR, segmentStart);
+            final String segment = xPath.substring(segmentStart, segmentEnd < 0 ? xPath.length() : segmentEnd);
+            pathId = child(pathId, segments.intern(segment));
+
+            if (segmentEnd < 0) {
+                return pathId;
+            }
+            segmentStart = segmentEnd + 1;
+        }
+    }
+
+    String get(final int pathId) {
+        if (pathId == InternTable.NO_VALUE) {
+            return null;
+        }
+
+        int depth = 0;
+        for (int id = pathId; id != InternTable.NO_VALUE; id = parents[id]) {
+            depth++;
+        }
+
+        final String[] pathSegments = new String[depth];
+        for (int id = pathId; id != InternTable.NO_VALUE; id = parents[id]) {
+            pathSegments[--depth] = segments.get(segmentIds[id]);
+        }
+        return String.join(String.valueOf(SEPARATOR), pathSegments);
+    }
+
+    private int child(final int parentId, final int segmentId) {
+        final long key = ((long) (parentId + 1) << 32) | segmentId;
+        final Integer childId = children.get(key);
+        if (childId != null) {
+            return childId;
+        }
+
+        if (size == parents.length) {
+            parents = Arrays.copyOf(parents, size * 2);
+            segmentIds = Arrays.copyOf(segmentIds, size * 2);
+        }
+        parents[size] = parentId;
+        segmentIds[size] = segmentId;
+        children.put(key, size);
+        return size++;
+    }
+}
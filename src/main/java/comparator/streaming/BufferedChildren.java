@@ -0,0 +1,24 @@
+package comparator.streaming;
+
+import java.util.Iterator;
+
+class BufferedChildren implements ChildSource {
+
+    private final Iterator<Object> children;
+
+    BufferedChildren(final ElementNode element) {
+        this.children = element.getChildren().iterator();
+    }
+
+    @Override
+    public Object nextChild() {
+        return children.hasNext() ? children.next() : null;
+    }
+
+    @Override
+    public void skipRemaining() {
+        while (children.hasNext()) {
+            children.next();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package comparator.streaming;
+
+import javax.xml.stream.XMLStreamException;
+
+interface ChildSource {
+
+    Object nextChild() throws XMLStreamException;
+
+    void skipRemaining() throws XMLStreamException;
+}
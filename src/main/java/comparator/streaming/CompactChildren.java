@@ -0,0 +1,30 @@
+package comparator.streaming;
+
+import comparator.tree.CompactDocument;
+
+class CompactChildren implements ChildSource {
+
+    private final CompactDocument document;
+    private int nextNode;
+
+    CompactChildren(final CompactDocument document, final int firstNode) {
+        this.document = document;
+        this.nextNode = firstNode;
+    }
+
+    @Override
+    public Object nextChild() {
+        if (nextNode == CompactDocument.NONE) {
+            return null;
+        }
+
+        final int node = nextNode;
+        nextNode = document.getNextSibling(node);
+        return document.isElement(node) ? new CompactElementNode(document, node) : document.getText(node);
+    }
+
+    @Override
+    public void skipRemaining() {
+        nextNode = CompactDocument.NONE;
+    }
+}
@@ -0,0 +1,36 @@
+package comparator.streaming;
+
+import comparator.tree.CompactDocument;
+
+import java.util.Map;
+
+class CompactElementNode extends ElementNode {
+
+    private final CompactDocument document;
+    private final int node;
+    private Map<String, String> attributes;
+
+    CompactElementNode(final CompactDocument document, final int node) {
+        super(document.getName(node), null);
+        this.document = document;
+        this.node = node;
+    }
+
+    @Override
+    Map<String, String> getAttributes() {
+        if (attributes == null) {
+            attributes = document.getAttributes(node);
+        }
+        return attributes;
+    }
+
+    @Override
+    boolean isBuffered() {
+        return true;
+    }
+
+    @Override
+    ChildSource bufferedChildren() {
+        return new CompactChildren(document, document.getFirstChild(node));
+    }
+}
@@ -0,0 +1,40 @@
+package comparator.streaming;
+
+import java.util.List;
+import java.util.Map;
+
+class ElementNode {
+
+    private final String name;
+    private final Map<String, String> attributes;
+    private List<Object> children;
+
+    ElementNode(final String name, final Map<String, String> attributes) {
+        this.name = name;
+        this.attributes = attributes;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Map<String, String> getAttributes() {
+        return attributes;
+    }
+
+    List<Object> getChildren() {
+        return children;
+    }
+
+    void setChildren(final List<Object> children) {
+        this.children = children;
+    }
+
+    boolean isBuffered() {
+        return children != null;
+    }
+
+    ChildSource bufferedChildren() {
+        return new BufferedChildren(this);
+    }
+}
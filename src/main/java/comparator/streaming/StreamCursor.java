@@ -0,0 +1,122 @@
+package comparator.streaming;
+
+import comparator.tree.TextRun;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class StreamCursor implements ChildSource {
+
+    private final XMLStreamReader reader;
+    private final TextRun textRun = new TextRun();
+    private boolean pendingEvent;
+    private int elementCount;
+
+    StreamCursor(final XMLStreamReader reader) {
+        this.reader = reader;
+    }
+
+    int getElementCount() {
+        return elementCount;
+    }
+
+    @Override
+    public Object nextChild() throws XMLStreamException {
+        while (pendingEvent || reader.hasNext()) {
+            final int event = pendingEvent ? reader.getEventType() : reader.next();
+            pendingEvent = false;
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    final String text = textRun.take();
+                    if (text != null) {
+                        pendingEvent = true;
+                        return text;
+                    }
+                    elementCount++;
+                    return new ElementNode(getQualifiedName(reader.getPrefix(), reader.getLocalName()), readAttributes());
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE ->
+                        textRun.append(event, reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                case XMLStreamConstants.COMMENT -> textRun.endSegment();
+                case XMLStreamConstants.PROCESSING_INSTRUCTION -> {
+                    final String text = textRun.take();
+                    if (text != null) {
+                        return text;
+                    }
+                }
+                case XMLStreamConstants.END_ELEMENT, XMLStreamConstants.END_DOCUMENT -> {
+                    final String text = textRun.take();
+                    if (text != null) {
+                        pendingEvent = true;
+                        return text;
+                    }
+                    return null;
+                }
+                default -> {
+                }
+            }
+        }
+        return textRun.take();
+    }
+
+    @Override
+    public void skipRemaining() throws XMLStreamException {
+        textRun.clear();
+        int depth = 0;
+        while (pendingEvent || reader.hasNext()) {
+            final int event = pendingEvent ? reader.getEventType() : reader.next();
+            pendingEvent = false;
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    elementCount++;
+                    depth++;
+                }
+                case XMLStreamConstants.END_ELEMENT -> {
+                    if (depth-- == 0) {
+                        return;
+                    }
+                }
+                case XMLStreamConstants.END_DOCUMENT -> {
+                    return;
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    void readSubtree(final ElementNode element) throws XMLStreamException {
+        final List<Object> children = new ArrayList<>();
+        Object child;
+        while ((child = nextChild()) != null) {
+            if (child instanceof ElementNode childElement) {
+                readSubtree(childElement);
+            }
+            children.add(child);
+        }
+        element.setChildren(children);
+    }
+
+    private Map<String, String> readAttributes() {
+        final int attributeCount = reader.getAttributeCount();
+        if (attributeCount == 0) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, String> attributes = new HashMap<>();
+        for (int i = 0; i < attributeCount; i++) {
+            attributes.put(getQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)), reader.getAttributeValue(i));
+        }
+        return attributes;
+    }
+
+    private static String getQualifiedName(final String prefix, final String localName) {
+        return (prefix == null || prefix.isEmpty()) ? localName : prefix + ":" + localName;
+    }
+}
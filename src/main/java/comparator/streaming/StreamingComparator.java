@@ -0,0 +1,388 @@
+package comparator.streaming;
+
+import comparator.DifferenceCategory;
+import comparator.DifferenceSink;
+import comparator.diffrence.NonTextDifference;
+import comparator.diffrence.TextDifference;
+import comparator.io.XmlSources;
+import comparator.rules.ComparisonRules;
+import comparator.rules.CompiledRules;
+import comparator.tree.CompactDocument;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.xmlunit.diff.ComparisonType.ATTR_NAME_LOOKUP;
+import static org.xmlunit.diff.ComparisonType.ATTR_VALUE;
+import static org.xmlunit.diff.ComparisonType.CHILD_LOOKUP;
+import static org.xmlunit.diff.ComparisonType.CHILD_NODELIST_LENGTH;
+import static org.xmlunit.diff.ComparisonType.CHILD_NODELIST_SEQUENCE;
+import static org.xmlunit.diff.ComparisonType.ELEMENT_NUM_ATTRIBUTES;
+import static org.xmlunit.diff.ComparisonType.TEXT_VALUE;
+
+public class StreamingComparator {
+
+    public static final int DEFAULT_WINDOW_SIZE = 64;
+
+    private static final String NO_VALUE = "NULL";
+    private static final String TEXT_NODE_NAME = "#text";
+
+    private final CompiledRules rules;
+    private final int windowSize;
+    private final DifferenceSink sink;
+
+    private StreamingComparator(final ComparisonRules rules, final int windowSize, final DifferenceSink sink) {
+        this.rules = CompiledRules.of(rules);
+        this.windowSize = windowSize;
+        this.sink = sink;
+    }
+
+    public static int compare(final File controlXml, final File testXml, final ComparisonRules rules,
+                              final int windowSize, final DifferenceSink sink) throws IOException {
+        final XMLInputFactory inputFactory = XmlSources.newInputFactory();
+
+        try (final InputStream controlStream = XmlSources.open(controlXml.toPath());
+             final InputStream testStream = XmlSources.open(testXml.toPath())) {
+            final XMLStreamReader controlReader = inputFactory.createXMLStreamReader(controlStream);
+            final XMLStreamReader testReader = inputFactory.createXMLStreamReader(testStream);
+            try {
+                final StreamCursor controlCursor = new StreamCursor(controlReader);
+                final StreamCursor testCursor = new StreamCursor(testReader);
+
+                new StreamingComparator(rules, windowSize, sink).compareRoots(controlCursor, testCursor);
+                return controlCursor.getElementCount();
+            } finally {
+                controlReader.close();
+                testReader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Error parsing XML file", e);
+        }
+    }
+
+    public static int compare(final CompactDocument controlXml, final CompactDocument testXml, final ComparisonRules rules,
+                              final DifferenceSink sink) {
+        try {
+            new StreamingComparator(rules, Integer.MAX_VALUE, sink).compareRoots(new CompactChildren(controlXml, controlXml.getRoot()),
+                    new CompactChildren(testXml, testXml.getRoot()));
+            return controlXml.getElementCount();
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Compact documents are read without a stream", e);
+        }
+    }
+
+    private void compareRoots(final ChildSource controlSource, final ChildSource testSource) throws XMLStreamException {
+        final ElementNode controlRoot = nextElement(controlSource);
+        final ElementNode testRoot = nextElement(testSource);
+        if (controlRoot == null || testRoot == null) {
+            throw new XMLStreamException("Document has no root element");
+        }
+
+        final SiblingKey rootKey = new SiblingKey(controlRoot.getName(), 1);
+        if (controlRoot.getName().equals(testRoot.getName())) {
+            compareSiblings("", rootKey, controlRoot, 0, controlSource, testRoot, 0, testSource);
+            return;
+        }
+
+        sink.accept(DifferenceCategory.of(CHILD_LOOKUP), missing("", rootKey, controlRoot));
+        sink.accept(DifferenceCategory.of(CHILD_NODELIST_LENGTH), new NonTextDifference("/", null, null,
+                "Difference type: " + CHILD_NODELIST_LENGTH));
+        childrenOf(controlRoot, controlSource).skipRemaining();
+    }
+
+    private void compareAttributes(final String xPath, final ElementNode control, final ElementNode test) {
+        final Map<String, String> controlAttributes = control.getAttributes();
+        final Map<String, String> testAttributes = test.getAttributes();
+
+        if (controlAttributes.size() != testAttributes.size()) {
+            sink.accept(DifferenceCategory.of(ELEMENT_NUM_ATTRIBUTES), new NonTextDifference(xPath, attributesOf(control), attributesOf(test),
+                    "Difference type: " + ELEMENT_NUM_ATTRIBUTES));
+        }
+
+        for (final Map.Entry<String, String> controlAttribute : sorted(controlAttributes).entrySet()) {
+            final String attributeName = controlAttribute.getKey();
+            if (rules.isAttributeIgnored(control.getName(), attributeName)) {
+                continue;
+            }
+
+            final String attributeXPath = xPath + "/@" + attributeName;
+            final String testValue = testAttributes.get(attributeName);
+            if (testValue == null) {
+                sink.accept(DifferenceCategory.of(ATTR_NAME_LOOKUP), new TextDifference(attributeXPath, attributesOf(control), attributesOf(test),
+                        attributeName, NO_VALUE));
+            } else if (!testValue.equals(controlAttribute.getValue())) {
+                sink.accept(DifferenceCategory.of(ATTR_VALUE), TextDifference.ofValues(attributeXPath, null, null,
+                        controlAttribute.getValue(), testValue));
+            }
+        }
+
+        for (final String attributeName : sorted(testAttributes).keySet()) {
+            if (!controlAttributes.containsKey(attributeName) && !rules.isAttributeIgnored(test.getName(), attributeName)) {
+                sink.accept(DifferenceCategory.of(ATTR_NAME_LOOKUP), new TextDifference(xPath, attributesOf(control), attributesOf(test),
+                        NO_VALUE, attributeName));
+            }
+        }
+    }
+
+    private void compareChildren(final String xPath, final ElementNode control, final ChildSource controlChildren,
+                                 final ElementNode test, final ChildSource testChildren) throws XMLStreamException {
+        final Siblings controlSiblings = new Siblings(controlChildren, rules);
+        final Siblings testSiblings = new Siblings(testChildren, rules);
+        final Deque<String> pendingControlTexts = new ArrayDeque<>();
+        final Deque<String> pendingTestTexts = new ArrayDeque<>();
+        final Map<Integer, TextDifference> missingControls = new TreeMap<>();
+        int textIndex = 0;
+        int matchedElements = 0;
+
+        while (!controlSiblings.ended || !testSiblings.ended) {
+            final Object controlChild = controlSiblings.next();
+            final Object testChild = testSiblings.next();
+
+            if (controlChild instanceof String controlText) {
+                if (pendingTestTexts.isEmpty()) {
+                    pendingControlTexts.add(controlText);
+                } else {
+                    compareTexts(xPath + "/text()[" + ++textIndex + "]", control, test, controlText, pendingTestTexts.poll());
+                }
+            }
+            if (testChild instanceof String testText) {
+                if (pendingControlTexts.isEmpty()) {
+                    pendingTestTexts.add(testText);
+                } else {
+                    compareTexts(xPath + "/text()[" + ++textIndex + "]", control, test, pendingControlTexts.poll(), testText);
+                }
+            }
+
+            final SiblingKey controlKey = controlChild instanceof ElementNode element ? controlSiblings.register(element) : null;
+            final SiblingKey testKey = testChild instanceof ElementNode element ? testSiblings.register(element) : null;
+
+            if (controlKey != null && controlKey.equals(testKey)) {
+                compareSiblings(xPath, controlKey, (ElementNode) controlChild, controlSiblings.position, controlChildren,
+                        (ElementNode) testChild, testSiblings.position - testSiblings.dropped, testChildren);
+                matchedElements++;
+                continue;
+            }
+
+            if (controlKey != null) {
+                final PendingElement pendingTest = testSiblings.pending.remove(controlKey);
+                if (pendingTest != null) {
+                    compareSiblings(xPath, controlKey, (ElementNode) controlChild, controlSiblings.position, controlChildren,
+                            pendingTest.element(), pendingTest.position() - testSiblings.dropped, null);
+                    matchedElements++;
+                } else if (testSiblings.ended) {
+                    missingControls.put(controlSiblings.position, missing(xPath, controlKey, (ElementNode) controlChild));
+                    childrenOf((ElementNode) controlChild, controlChildren).skipRemaining();
+                } else {
+                    controlSiblings.buffer(controlKey, (ElementNode) controlChild);
+                }
+            }
+
+            if (testKey != null) {
+                if (controlSiblings.ended) {
+                    testSiblings.dropPending();
+                }
+                final PendingElement pendingControl = controlSiblings.pending.remove(testKey);
+                if (pendingControl != null) {
+                    compareSiblings(xPath, testKey, pendingControl.element(), pendingControl.position(), null,
+                            (ElementNode) testChild, testSiblings.position - testSiblings.dropped, testChildren);
+                    matchedElements++;
+                } else if (controlSiblings.ended) {
+                    childrenOf((ElementNode) testChild, testChildren).skipRemaining();
+                    testSiblings.dropped++;
+                } else {
+                    testSiblings.buffer(testKey, (ElementNode) testChild);
+                }
+            }
+
+            while (controlSiblings.pending.size() > windowSize || (testSiblings.ended && !controlSiblings.pending.isEmpty())) {
+                final Map.Entry<SiblingKey, PendingElement> evicted = controlSiblings.evictOldest();
+                missingControls.put(evicted.getValue().position(), missing(xPath, evicted.getKey(), evicted.getValue().element()));
+            }
+            while (testSiblings.pending.size() > windowSize) {
+                testSiblings.evictOldest();
+                testSiblings.dropped++;
+            }
+            if (controlSiblings.ended) {
+                testSiblings.dropPending();
+            }
+        }
+
+        missingControls.values().forEach(difference -> sink.accept(DifferenceCategory.of(CHILD_LOOKUP), difference));
+        for (int i = 0; i < pendingControlTexts.size(); i++) {
+            sink.accept(DifferenceCategory.of(CHILD_LOOKUP), new TextDifference(xPath + "/text()[" + ++textIndex + "]",
+                    null, null, TEXT_NODE_NAME, NO_VALUE));
+        }
+        for (int i = 0; i < pendingTestTexts.size(); i++) {
+            sink.accept(DifferenceCategory.of(CHILD_LOOKUP), new TextDifference(xPath + "/text()[" + ++textIndex + "]",
+                    null, null, NO_VALUE, TEXT_NODE_NAME));
+        }
+
+        final int controlChildCount = controlSiblings.position + 1;
+        final int testChildCount = matchedElements + testSiblings.textCount;
+        if (control != null && controlChildCount != testChildCount) {
+            sink.accept(DifferenceCategory.of(CHILD_NODELIST_LENGTH), new NonTextDifference(xPath, attributesOf(control), attributesOf(test),
+                    "Difference type: " + CHILD_NODELIST_LENGTH));
+        }
+    }
+
+    private void compareSiblings(final String parentXPath, final SiblingKey key,
+                                 final ElementNode control, final int controlPosition, final ChildSource controlSource,
+                                 final ElementNode test, final int testPosition, final ChildSource testSource) throws XMLStreamException {
+        final ChildSource controlChildren = childrenOf(control, controlSource);
+        final ChildSource testChildren = childrenOf(test, testSource);
+
+        if (hasSkippingAttribute(test)) {
+            controlChildren.skipRemaining();
+            testChildren.skipRemaining();
+            return;
+        }
+
+        final String xPath = parentXPath + "/" + key.name() + "[" + key.index() + "]";
+        if (controlPosition != testPosition) {
+            sink.accept(DifferenceCategory.of(CHILD_NODELIST_SEQUENCE), new NonTextDifference(xPath, attributesOf(control), attributesOf(test),
+                    "Different order of nodes"));
+        }
+
+        compareAttributes(xPath, control, test);
+        compareChildren(xPath, control, controlChildren, test, testChildren);
+    }
+
+    private void compareTexts(final String xPath, final ElementNode control, final ElementNode test,
+                              final String controlValue, final String testValue) {
+        final boolean similar = isTimeDifferenceCase(control)
+                ? CompiledRules.isSimilarTime(controlValue, testValue)
+                : controlValue.equals(testValue);
+
+        if (!similar) {
+            sink.accept(DifferenceCategory.of(TEXT_VALUE), TextDifference.ofValues(xPath, attributesOf(control), attributesOf(test),
+                    controlValue, testValue));
+        }
+    }
+
+    private static TextDifference missing(final String parentXPath, final SiblingKey key, final ElementNode control) {
+        final String xPath = parentXPath + "/" + key.name() + "[" + key.index() + "]";
+        return new TextDifference(xPath, attributesOf(control), null, key.name(), NO_VALUE);
+    }
+
+    private boolean hasSkippingAttribute(final ElementNode element) {
+        for (final Map.Entry<String, String> attribute : element.getAttributes().entrySet()) {
+            if (rules.isSkippingAttribute(attribute.getKey(), attribute.getValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isTimeDifferenceCase(final ElementNode control) {
+        if (control == null) {
+            return false;
+        }
+
+        for (final Map.Entry<String, String> attribute : control.getAttributes().entrySet()) {
+            if (rules.isTimeAttribute(attribute.getKey(), attribute.getValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, String> sorted(final Map<String, String> attributes) {
+        return attributes.size() > 1 ? new TreeMap<>(attributes) : attributes;
+    }
+
+    private static ElementNode nextElement(final ChildSource source) throws XMLStreamException {
+        Object child;
+        while ((child = source.nextChild()) != null) {
+            if (child instanceof ElementNode element) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private static ChildSource childrenOf(final ElementNode element, final ChildSource source) {
+        return element.isBuffered() ? element.bufferedChildren() : source;
+    }
+
+    private static Map<String, String> attributesOf(final ElementNode element) {
+        return (element == null || element.getAttributes().isEmpty()) ? null : element.getAttributes();
+    }
+
+    private record SiblingKey(String name, int index) {
+    }
+
+    private record PendingElement(ElementNode element, int position) {
+    }
+
+    private static class Siblings {
+        private final ChildSource source;
+        private final CompiledRules rules;
+        private final Map<String, Integer> nameCounters = new HashMap<>();
+        private final LinkedHashMap<SiblingKey, PendingElement> pending = new LinkedHashMap<>();
+        private int position = -1;
+        private int textCount;
+        private int dropped;
+        private boolean ended;
+
+        private Siblings(final ChildSource source, final CompiledRules rules) {
+            this.source = source;
+            this.rules = rules;
+        }
+
+        private Object next() throws XMLStreamException {
+            if (ended) {
+                return null;
+            }
+
+            Object child = source.nextChild();
+            while (child instanceof ElementNode element && rules.isNodeIgnored(element.getName())) {
+                childrenOf(element, source).skipRemaining();
+                child = source.nextChild();
+            }
+            if (child == null) {
+                ended = true;
+                return null;
+            }
+
+            position++;
+            if (child instanceof String) {
+                textCount++;
+            }
+            return child;
+        }
+
+        private SiblingKey register(final ElementNode element) {
+            return new SiblingKey(element.getName(), nameCounters.merge(element.getName(), 1, Integer::sum));
+        }
+
+        private void buffer(final SiblingKey key, final ElementNode element) throws XMLStreamException {
+            if (!element.isBuffered()) {
+                ((StreamCursor) source).readSubtree(element);
+            }
+            pending.put(key, new PendingElement(element, position));
+        }
+
+        private void dropPending() {
+            dropped += pending.size();
+            pending.clear();
+        }
+
+        private Map.Entry<SiblingKey, PendingElement> evictOldest() {
+            final Iterator<Map.Entry<SiblingKey, PendingElement>> iterator = pending.entrySet().iterator();
+            final Map.Entry<SiblingKey, PendingElement> oldest = iterator.next();
+            iterator.remove();
+            return oldest;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package comparator.tree;
+
+import comparator.io.XmlSources;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class CompactDocument {
+
+    public static final int NONE = -1;
+
+    private final int[] parents;
+    private final int[] firstChildren;
+    private final int[] nextSiblings;
+    private final int[] nameIds;
+    private final int[] contentOffsets;
+    private final int[] contentLengths;
+    private final int[] attributeNameIds;
+    private final int[] attributeValueOffsets;
+    private final int[] attributeValueLengths;
+    private final String[] names;
+    private final char[] characters;
+    private final int nodeCount;
+    private final int elementCount;
+
+    CompactDocument(final int[] parents, final int[] firstChildren, final int[] nextSiblings, final int[] nameIds,
+                    final int[] contentOffsets, final int[] contentLengths, final int[] attributeNameIds,
+                    final int[] attributeValueOffsets, final int[] attributeValueLengths, final String[] names,
+                    final char[] characters, final int nodeCount, final int elementCount) {
+        this.parents = parents;
+        this.firstChildren = firstChildren;
+        this.nextSiblings = nextSiblings;
+        this.nameIds = nameIds;
+        this.contentOffsets = contentOffsets;
+        this.contentLengths = contentLengths;
+        this.attributeNameIds = attributeNameIds;
+        this.attributeValueOffsets = attributeValueOffsets;
+        this.attributeValueLengths = attributeValueLengths;
+        this.names = names;
+        this.characters = characters;
+        this.nodeCount = nodeCount;
+        this.elementCount = elementCount;
+    }
+
+    public static CompactDocument parse(final File xmlFile) throws IOException {
+        try (final InputStream input = XmlSources.open(xmlFile.toPath())) {
+            return parse(input);
+        }
+    }
+
+    public static CompactDocument parse(final InputStream input) throws IOException {
+        final XMLInputFactory inputFactory = XmlSources.newInputFactory();
+
+        try {
+            final XMLStreamReader reader = inputFactory.createXMLStreamReader(input);
+            try {
+                return new CompactDocumentBuilder().build(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Error parsing XML file", e);
+        }
+    }
+
+    public int getRoot() {
+        return nodeCount == 0 ? NONE : 0;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getElementCount() {
+        return elementCount;
+    }
+
+    public int getParent(final int node) {
+        return parents[node];
+    }
+
+    public int getFirstChild(final int node) {
+        return firstChildren[node];
+    }
+
+    public int getNextSibling(final int node) {
+        return nextSiblings[node];
+    }
+
+    public boolean isElement(final int node) {
+        return nameIds[node] != NONE;
+    }
+
+    public String getName(final int node) {
+        return isElement(node) ? names[nameIds[node]] : null;
+    }
+
+    public String getText(final int node) {
+        return isElement(node) ? null : new String(characters, contentOffsets[node], contentLengths[node]);
+    }
+
+    public int getAttributeCount(final int node) {
+        return isElement(node) ? contentLengths[node] : 0;
+    }
+
+    public String getAttributeName(final int node, final int index) {
+        return names[attributeNameIds[attributeIndex(node, index)]];
+    }
+
+    public String getAttributeValue(final int node, final int index) {
+        final int attribute = attributeIndex(node, index);
+        return new String(characters, attributeValueOffsets[attribute], attributeValueLengths[attribute]);
+    }
+
+    public Map<String, String> getAttributes(final int node) {
+        final int attributeCount = getAttributeCount(node);
+        if (attributeCount == 0) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, String> attributes = new HashMap<>();
+        for (int i = 0; i < attributeCount; i++) {
+            attributes.put(getAttributeName(node, i), getAttributeValue(node, i));
+        }
+        return attributes;
+    }
+
+    private int attributeIndex(final int node, final int index) {
+        if (index < 0 || index >= getAttributeCount(node)) {
+            throw new IndexOutOfBoundsException("Attribute index " + index + " out of range for node " + node);
+        }
+        return contentOffsets[node] + index;
+    }
+}
@@ -0,0 +1,173 @@
+package comparator.tree;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class CompactDocumentBuilder {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private int[] firstChildren = new int[INITIAL_CAPACITY];
+    private int[] nextSiblings = new int[INITIAL_CAPACITY];
+    private int[] nodeNameIds = new int[INITIAL_CAPACITY];
+    private int[] contentOffsets = new int[INITIAL_CAPACITY];
+    private int[] contentLengths = new int[INITIAL_CAPACITY];
+    private int[] lastChildren = new int[INITIAL_CAPACITY];
+    private int nodeCount;
+    private int elementCount;
+
+    private int[] attributeNameIds = new int[INITIAL_CAPACITY];
+    private int[] attributeValueOffsets = new int[INITIAL_CAPACITY];
+    private int[] attributeValueLengths = new int[INITIAL_CAPACITY];
+    private int attributeCount;
+
+    private char[] characters = new char[INITIAL_CAPACITY * 8];
+    private int characterCount;
+
+    private final TextRun textRun = new TextRun();
+
+    CompactDocument build(final XMLStreamReader reader) throws XMLStreamException {
+        int parent = CompactDocument.NONE;
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    addText(parent);
+                    final int element = addNode(parent, internName(qualifiedName(reader.getPrefix(), reader.getLocalName())));
+                    addAttributes(element, reader);
+                    elementCount++;
+                    parent = element;
+                }
+                case XMLStreamConstants.END_ELEMENT -> {
+                    addText(parent);
+                    parent = parents[parent];
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                    if (parent != CompactDocument.NONE) {
+                        textRun.append(reader.getEventType(), reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                    }
+                }
+                case XMLStreamConstants.COMMENT -> textRun.endSegment();
+                case XMLStreamConstants.PROCESSING_INSTRUCTION -> addText(parent);
+                default -> {
+                }
+            }
+        }
+
+        return new CompactDocument(Arrays.copyOf(parents, nodeCount), Arrays.copyOf(firstChildren, nodeCount),
+                Arrays.copyOf(nextSiblings, nodeCount), Arrays.copyOf(nodeNameIds, nodeCount),
+                Arrays.copyOf(contentOffsets, nodeCount), Arrays.copyOf(contentLengths, nodeCount),
+                Arrays.copyOf(attributeNameIds, attributeCount), Arrays.copyOf(attributeValueOffsets, attributeCount),
+                Arrays.copyOf(attributeValueLengths, attributeCount), names.toArray(String[]::new),
+                Arrays.copyOf(characters, characterCount), nodeCount, elementCount);
+    }
+
+    private int addNode(final int parent, final int nameId) throws XMLStreamException {
+        if (nodeCount == parents.length) {
+            final int capacity = grow(parents.length, 1, "nodes");
+            parents = Arrays.copyOf(parents, capacity);
+            firstChildren = Arrays.copyOf(firstChildren, capacity);
+            nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+            nodeNameIds = Arrays.copyOf(nodeNameIds, capacity);
+            contentOffsets = Arrays.copyOf(contentOffsets, capacity);
+            contentLengths = Arrays.copyOf(contentLengths, capacity);
+            lastChildren = Arrays.copyOf(lastChildren, capacity);
+        }
+
+        final int node = nodeCount++;
+        parents[node] = parent;
+        firstChildren[node] = CompactDocument.NONE;
+        nextSiblings[node] = CompactDocument.NONE;
+        lastChildren[node] = CompactDocument.NONE;
+        nodeNameIds[node] = nameId;
+
+        if (parent != CompactDocument.NONE) {
+            if (lastChildren[parent] == CompactDocument.NONE) {
+                firstChildren[parent] = node;
+            } else {
+                nextSiblings[lastChildren[parent]] = node;
+            }
+            lastChildren[parent] = node;
+        }
+        return node;
+    }
+
+    private void addAttributes(final int element, final XMLStreamReader reader) throws XMLStreamException {
+        final int count = reader.getAttributeCount();
+        contentOffsets[element] = attributeCount;
+        contentLengths[element] = count;
+
+        if (attributeCount + count > attributeNameIds.length) {
+            final int capacity = grow(attributeCount, count, "attributes");
+            attributeNameIds = Arrays.copyOf(attributeNameIds, capacity);
+            attributeValueOffsets = Arrays.copyOf(attributeValueOffsets, capacity);
+            attributeValueLengths = Arrays.copyOf(attributeValueLengths, capacity);
+        }
+
+        for (int i = 0; i < count; i++) {
+            final String value = reader.getAttributeValue(i);
+            attributeNameIds[attributeCount] = internName(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)));
+            attributeValueOffsets[attributeCount] = characterCount;
+            attributeValueLengths[attributeCount] = value.length();
+            ensureCharacterCapacity(value.length());
+            value.getChars(0, value.length(), characters, characterCount);
+            characterCount += value.length();
+            attributeCount++;
+        }
+    }
+
+    private void addText(final int parent) throws XMLStreamException {
+        final String text = textRun.take();
+        if (text == null || parent == CompactDocument.NONE) {
+            return;
+        }
+
+        final int node = addNode(parent, CompactDocument.NONE);
+        contentOffsets[node] = characterCount;
+        contentLengths[node] = text.length();
+        ensureCharacterCapacity(text.length());
+        text.getChars(0, text.length(), characters, characterCount);
+        characterCount += text.length();
+    }
+
+    private void ensureCharacterCapacity(final int additionalCharacters) throws XMLStreamException {
+        if (characterCount + (long) additionalCharacters > characters.length) {
+            characters = Arrays.copyOf(characters, grow(characterCount, additionalCharacters, "characters"));
+        }
+    }
+
+    private static int grow(final int size, final int additional, final String content) throws XMLStreamException {
+        final long required = (long) size + additional;
+        if (required > MAX_CAPACITY) {
+            throw new XMLStreamException("Document exceeds the compact tree limit of " + MAX_CAPACITY + " " + content
+                    + ", use the streaming comparison instead");
+        }
+        return (int) Math.min(MAX_CAPACITY, Math.max(required, (long) size * 2));
+    }
+
+    private int internName(final String name) {
+        final Integer id = nameIds.get(name);
+        if (id != null) {
+            return id;
+        }
+
+        final int newId = names.size();
+        names.add(name);
+        nameIds.put(name, newId);
+        return newId;
+    }
+
+    private static String qualifiedName(final String prefix, final String localName) {
+        return (prefix == null || prefix.isEmpty()) ? localName : prefix + ":" + localName;
+    }
+}
@@ -0,0 +1,56 @@
+package comparator.tree;
+
+import javax.xml.stream.XMLStreamConstants;
+
+public class TextRun {
+
+    private static final int NO_SEGMENT = -1;
+
+    private final StringBuilder run = new StringBuilder();
+    private final StringBuilder segment = new StringBuilder();
+    private int segmentType = NO_SEGMENT;
+
+    public void append(final int eventType, final char[] text, final int start, final int length) {
+        final int type = eventType == XMLStreamConstants.CDATA ? XMLStreamConstants.CDATA : XMLStreamConstants.CHARACTERS;
+        if (type != segmentType) {
+            endSegment();
+            segmentType = type;
+        }
+        segment.append(text, start, length);
+    }
+
+    public void endSegment() {
+        if (segmentType == NO_SEGMENT) {
+            return;
+        }
+
+        int start = 0;
+        int end = segment.length();
+        while (start < end && segment.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && segment.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        run.append(segment, start, end);
+        segment.setLength(0);
+        segmentType = NO_SEGMENT;
+    }
+
+    public String take() {
+        endSegment();
+        if (run.isEmpty()) {
+            return null;
+        }
+
+        final String text = run.toString();
+        run.setLength(0);
+        return text;
+    }
+
+    public void clear() {
+        run.setLength(0);
+        segment.setLength(0);
+        segmentType = NO_SEGMENT;
+    }
+}
@@ -0,0 +1,115 @@
+package comparator.watch;
+
+import comparator.DifferenceResult;
+import comparator.DocumentPair;
+import comparator.ReportGenerator;
+import comparator.XmlUtils;
+import comparator.report.ReportFormat;
+import comparator.rules.ComparisonRules;
+import comparator.sharding.ShardedComparator;
+import comparator.similarity.SimilarityCalculator;
+import comparator.similarity.SimilarityResult;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+public class IncrementalComparator {
+
+    public static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(200);
+
+    private final Path controlXmlPath;
+    private final Path testXmlPath;
+    private final Path outputPath;
+    private final ComparisonRules rules;
+    private final String keyAttribute;
+    private final ShardResultCache shardCache = new ShardResultCache();
+
+    public IncrementalComparator(final Path controlXmlPath, final Path testXmlPath, final Path outputPath,
+                                 final ComparisonRules rules, final String keyAttribute) {
+        this.controlXmlPath = controlXmlPath.toAbsolutePath().normalize();
+        this.testXmlPath = testXmlPath.toAbsolutePath().normalize();
+        this.outputPath = outputPath;
+        this.rules = rules;
+        this.keyAttribute = keyAttribute;
+    }
+
+    public synchronized IncrementalResult compare() {
+        try {
+            final DocumentPair documents = XmlUtils.parseXML(controlXmlPath.toFile(), testXmlPath.toFile());
+
+            shardCache.startRun();
+            final DifferenceResult differenceResult = ShardedComparator.compare(documents.controlXml(), documents.testXml(),
+                    rules, keyAttribute, ForkJoinPool.commonPool(), shardCache);
+
+            final SimilarityResult similarityResult = SimilarityCalculator.calculate(documents.controlXml(),
+                    differenceResult.textDifferences().size());
+            ReportGenerator.generateReport(differenceResult, similarityResult, outputPath.toString(),
+                    ReportFormat.fromFileName(outputPath.toString()));
+
+            return new IncrementalResult(differenceResult, similarityResult, shardCache.getReusedShards(),
+                    shardCache.getComparedShards());
+        } catch (IOException e) {
+            throw new RuntimeException("Something went wrong with reading xml file", e);
+        }
+    }
+
+    public void watch(final Duration debounce, final Consumer<IncrementalResult> resultConsumer)
+            throws IOException, InterruptedException {
+        try (final WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            final Set<Path> directories = new LinkedHashSet<>();
+            directories.add(controlXmlPath.getParent());
+            directories.add(testXmlPath.getParent());
+            for (final Path directory : directories) {
+                directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY);
+            }
+
+            resultConsumer.accept(compare());
+            while (!Thread.currentThread().isInterrupted()) {
+                boolean inputChanged = pollChanges(watchService.take());
+
+                WatchKey pendingKey;
+                while ((pendingKey = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+                    inputChanged |= pollChanges(pendingKey);
+                }
+
+                if (inputChanged) {
+                    resultConsumer.accept(compare());
+                }
+            }
+        }
+    }
+
+    private boolean pollChanges(final WatchKey watchKey) {
+        final Path directory = (Path) watchKey.watchable();
+        boolean inputChanged = false;
+
+        for (final WatchEvent<?> event : watchKey.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                inputChanged = true;
+                continue;
+            }
+
+            final Path changedFile = directory.resolve((Path) event.context());
+            if (changedFile.equals(controlXmlPath) || changedFile.equals(testXmlPath)) {
+                inputChanged = true;
+            }
+        }
+
+        watchKey.reset();
+        return inputChanged;
+    }
+}
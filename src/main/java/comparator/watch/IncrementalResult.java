@@ -0,0 +1,8 @@
+package comparator.watch;
+
+import comparator.DifferenceResult;
+import comparator.similarity.SimilarityResult;
+
+public record IncrementalResult(DifferenceResult differenceResult, SimilarityResult similarityResult,
+                                int reusedShards, int comparedShards) {
+}
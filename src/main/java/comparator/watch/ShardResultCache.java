@@ -0,0 +1,56 @@
+package comparator.watch;
+
+import comparator.DifferenceResult;
+import comparator.sharding.ShardCache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ShardResultCache implements ShardCache {
+
+    private final AtomicInteger reusedShards = new AtomicInteger();
+    private final AtomicInteger comparedShards = new AtomicInteger();
+    private volatile Map<ShardFingerprint, DifferenceResult> previousRun = Map.of();
+    private volatile Map<ShardFingerprint, DifferenceResult> currentRun = new ConcurrentHashMap<>();
+
+    public synchronized void startRun() {
+        previousRun = currentRun;
+        currentRun = new ConcurrentHashMap<>();
+        reusedShards.set(0);
+        comparedShards.set(0);
+    }
+
+    @Override
+    public DifferenceResult get(final long controlHash, final long testHash) {
+        final ShardFingerprint fingerprint = new ShardFingerprint(controlHash, testHash);
+        DifferenceResult shardResult = currentRun.get(fingerprint);
+        if (shardResult == null) {
+            shardResult = previousRun.get(fingerprint);
+        }
+
+        if (shardResult == null) {
+            comparedShards.incrementAndGet();
+            return null;
+        }
+        currentRun.put(fingerprint, shardResult);
+        reusedShards.incrementAndGet();
+        return shardResult;
+    }
+
+    @Override
+    public void put(final long controlHash, final long testHash, final DifferenceResult shardResult) {
+        currentRun.put(new ShardFingerprint(controlHash, testHash), shardResult);
+    }
+
+    public int getReusedShards() {
+        return reusedShards.get();
+    }
+
+    public int getComparedShards() {
+        return comparedShards.get();
+    }
+
+    private record ShardFingerprint(long controlHash, long testHash) {
+    }
+}
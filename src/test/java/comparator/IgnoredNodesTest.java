@@ -0,0 +1,90 @@
+package comparator;
+
+import comparator.rules.ComparisonRules;
+import comparator.sharding.ShardedComparator;
+import comparator.store.DifferenceStore;
+import comparator.streaming.StreamingComparator;
+import comparator.tree.CompactDocument;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IgnoredNodesTest {
+
+    private static final String CONTROL = "<order><toBeIgnored>a</toBeIgnored><id>1</id>"
+            + "<customer><tooIgnored><x>1</x></tooIgnored><name>n</name></customer></order>";
+    private static final String TEST = "<order><id>1</id><toBeIgnored>b</toBeIgnored><toBeIgnored>c</toBeIgnored>"
+            + "<customer><name>n</name></customer></order>";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void domComparisonSkipsIgnoredNodes() throws IOException {
+        assertNoDifferences(DifferenceAnalyzer.analyzeDifferences(
+                DifferenceFinder.findDifferences(parse(CONTROL), parse(TEST), ComparisonRules.DEFAULT)));
+    }
+
+    @Test
+    void shardedComparisonSkipsIgnoredNodes() throws IOException {
+        assertNoDifferences(ShardedComparator.compare(parse(CONTROL), parse(TEST), ComparisonRules.DEFAULT, null,
+                ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    void streamingComparisonSkipsIgnoredNodes() throws IOException {
+        final DifferenceStore differenceStore = new DifferenceStore();
+        StreamingComparator.compare(write("control.xml", CONTROL).toFile(), write("test.xml", TEST).toFile(), ComparisonRules.DEFAULT,
+                StreamingComparator.DEFAULT_WINDOW_SIZE, differenceStore);
+
+        assertNoDifferences(differenceStore.toDifferenceResult());
+    }
+
+    @Test
+    void compactComparisonSkipsIgnoredNodes() throws IOException {
+        final DifferenceStore differenceStore = new DifferenceStore();
+        StreamingComparator.compare(parseCompact(CONTROL), parseCompact(TEST), ComparisonRules.DEFAULT, differenceStore);
+
+        assertNoDifferences(differenceStore.toDifferenceResult());
+    }
+
+    @Test
+    void ignoredNodeStillSeparatesText() throws IOException {
+        final DifferenceResult result = DifferenceAnalyzer.analyzeDifferences(DifferenceFinder.findDifferences(
+                parse("<root><value>a<toBeIgnored/>b</value></root>"), parse("<root><value>ab</value></root>"), ComparisonRules.DEFAULT));
+
+        assertFalse(result.textDifferences().isEmpty() && result.otherDifferences().isEmpty());
+    }
+
+    private static void assertNoDifferences(final DifferenceResult result) {
+        assertTrue(result.textDifferences().isEmpty(), () -> "text " + result.textDifferences());
+        assertTrue(result.attributeDifferences().isEmpty(), () -> "attributes " + result.attributeDifferences());
+        assertTrue(result.orderDifferences().isEmpty(), () -> "order " + result.orderDifferences());
+        assertTrue(result.otherDifferences().isEmpty(), () -> "other " + result.otherDifferences());
+    }
+
+    private Path write(final String fileName, final String content) throws IOException {
+        return Files.writeString(directory.resolve(fileName), content);
+    }
+
+    private static Document parse(final String xml) throws IOException {
+        return XmlUtils.parseXML(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), null);
+    }
+
+    private static CompactDocument parseCompact(final String xml) throws IOException {
+        try (final InputStream input = new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))) {
+            return CompactDocument.parse(input);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package comparator;
+
+import comparator.rules.ComparisonRules;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+import org.xmlunit.diff.DefaultNodeMatcher;
+import org.xmlunit.diff.ElementSelectors;
+import org.xmlunit.diff.NodeMatcher;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeyedNodeMatcherTest {
+
+    private static final String[][] SIBLINGS = {
+            {"<r><a/><b/><a/></r>", "<r><b/><a/><a/></r>"},
+            {"<r><b/><a/><a/></r>", "<r><a/><a/><b/></r>"},
+            {"<r>x<a/>y<b/></r>", "<r><b/>z<a/></r>"},
+            {"<r><a id=\"1\"/><a id=\"2\"/><c/></r>", "<r><c/><a id=\"2\"/></r>"},
+            {"<r><a/><a/><a/></r>", "<r><b/><a/></r>"},
+    };
+
+    @Test
+    void matchesLikeByNameMatcherWithoutKeys() throws IOException {
+        final NodeMatcher byName = new DefaultNodeMatcher(ElementSelectors.byName);
+        final NodeMatcher keyed = new KeyedNodeMatcher(Map.of());
+
+        for (final String[] pair : SIBLINGS) {
+            final List<Node> controlNodes = children(parse(pair[0]));
+            final List<Node> testNodes = children(parse(pair[1]));
+
+            assertEquals(pairs(byName, controlNodes, testNodes), pairs(keyed, controlNodes, testNodes), pair[0] + " vs " + pair[1]);
+        }
+    }
+
+    @Test
+    void matchesReorderedElementsByKey() throws IOException {
+        final String control = "<root><item id=\"1\"><name>one</name></item><item id=\"2\"><name>two</name></item>"
+                + "<item id=\"3\"><name>three</name></item></root>";
+        final String test = "<root><item id=\"3\"><name>three</name></item><item id=\"1\"><name>one</name></item>"
+                + "<item id=\"2\"><name>two</name></item></root>";
+
+        final DifferenceResult positional = compare(control, test, ComparisonRules.DEFAULT);
+        final DifferenceResult keyed = compare(control, test, ComparisonRules.DEFAULT.withMatchKeys(Map.of("item", "@id"), false));
+        final DifferenceResult unordered = compare(control, test, ComparisonRules.DEFAULT.withMatchKeys(Map.of("item", "@id"), true));
+
+        assertEquals(3, positional.textDifferences().size());
+        assertTrue(keyed.textDifferences().isEmpty());
+        assertTrue(keyed.attributeDifferences().isEmpty());
+        assertEquals(3, keyed.orderDifferences().size());
+        assertTrue(unordered.orderDifferences().isEmpty());
+        assertTrue(unordered.otherDifferences().isEmpty());
+    }
+
+    @Test
+    void matchesByChildElementText() throws IOException {
+        final String control = "<people><person><email>a@x</email><age>1</age></person><person><email>b@x</email><age>2</age></person></people>";
+        final String test = "<people><person><email>b@x</email><age>3</age></person><person><email>a@x</email><age>1</age></person></people>";
+
+        final DifferenceResult result = compare(control, test, ComparisonRules.DEFAULT.withMatchKeys(Map.of("person", "email"), true));
+
+        assertEquals(1, result.textDifferences().size());
+        assertEquals("/people[1]/person[2]/age[1]/text()[1]", result.textDifferences().get(0).getNodeXPath());
+    }
+
+    @Test
+    void comparesChildrenOfElementsMatchedAtDifferentPositions() throws IOException {
+        final String control = "<items><item id=\"1\"><name>one</name></item><item id=\"2\"><value>1</value></item></items>";
+        final String test = "<items><item id=\"2\"><value>2</value></item><item id=\"1\"><name>one</name><extra/></item></items>";
+
+        final DifferenceResult result = compare(control, test, ComparisonRules.DEFAULT.withMatchKeys(Map.of("item", "@id"), true));
+
+        assertEquals(1, result.textDifferences().size());
+        assertEquals("/items[1]/item[2]/value[1]/text()[1]", result.textDifferences().get(0).getNodeXPath());
+        assertTrue(result.otherDifferences().isEmpty());
+    }
+
+    private static List<String> pairs(final NodeMatcher matcher, final List<Node> controlNodes, final List<Node> testNodes) {
+        final List<String> pairs = new ArrayList<>();
+        for (final Map.Entry<Node, Node> match : matcher.match(controlNodes, testNodes)) {
+            pairs.add(controlNodes.indexOf(match.getKey()) + "->" + testNodes.indexOf(match.getValue()));
+        }
+        pairs.sort(null);
+        return pairs;
+    }
+
+    private static List<Node> children(final Document document) {
+        final List<Node> children = new ArrayList<>();
+        for (Node child = document.getDocumentElement().getFirstChild(); child != null; child = child.getNextSibling()) {
+            children.add(child);
+        }
+        return children;
+    }
+
+    private static DifferenceResult compare(final String control, final String test, final ComparisonRules rules) throws IOException {
+        return DifferenceAnalyzer.analyzeDifferences(DifferenceFinder.findDifferences(parse(control), parse(test), rules));
+    }
+
+    private static Document parse(final String xml) throws IOException {
+        return XmlUtils.parseXML(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), null);
+    }
+}
@@ -0,0 +1,96 @@
+package comparator.aggregate;
+
+import comparator.DifferenceAnalyzer;
+import comparator.DifferenceCategory;
+import comparator.DifferenceFinder;
+import comparator.XmlUtils;
+import comparator.diffrence.ReportDifference;
+import comparator.diffrence.TextDifference;
+import comparator.rules.ComparisonRules;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DifferenceAggregatorTest {
+
+    @Test
+    void countsExactlyBelowCapacity() throws IOException {
+        final StringBuilder control = new StringBuilder("<root>");
+        final StringBuilder test = new StringBuilder("<root>");
+        for (int i = 0; i < 50; i++) {
+            control.append("<item id=\"").append(i).append("\"><price>").append(i).append("</price><name>n</name></item>");
+            test.append("<item id=\"").append(i + 1).append("\"><price>").append(i * 2).append("</price><name>n</name></item>");
+        }
+        control.append("</root>");
+        test.append("</root>");
+
+        final DifferenceAggregator aggregator = new DifferenceAggregator();
+        final Map<DifferencePattern, Long> expected = new HashMap<>();
+        DifferenceFinder.findDifferences(parse(control.toString()), parse(test.toString()), ComparisonRules.DEFAULT,
+                difference -> DifferenceAnalyzer.analyzeDifference(difference, (category, reportDifference) -> {
+                    expected.merge(DifferencePattern.of(category, reportDifference), 1L, Long::sum);
+                    aggregator.accept(category, reportDifference);
+                }));
+
+        final List<PatternSummary> summaries = aggregator.toPatternSummaries();
+        assertEquals(expected.size(), summaries.size());
+        for (final PatternSummary summary : summaries) {
+            assertEquals(expected.get(summary.pattern()), summary.count(), summary.pattern().toString());
+            assertEquals(0, summary.maxOvercount());
+            assertTrue(summary.sampleXPaths().size() <= DifferenceAggregator.DEFAULT_SAMPLES_PER_PATTERN);
+        }
+        for (int i = 1; i < summaries.size(); i++) {
+            assertTrue(summaries.get(i - 1).count() >= summaries.get(i).count());
+        }
+    }
+
+    @Test
+    void boundsCountsWhenPatternsAreEvicted() {
+        final int maxPatterns = 8;
+        final DifferenceAggregator aggregator = new DifferenceAggregator(maxPatterns, 2);
+        final Map<DifferencePattern, Long> exactCounts = new HashMap<>();
+        final Random random = new Random(42);
+        final int differenceCount = 5000;
+
+        for (int i = 0; i < differenceCount; i++) {
+            final int roll = random.nextInt(100);
+            final String element = roll < 40 ? "price" : roll < 60 ? "name" : "noise" + random.nextInt(500);
+            final ReportDifference difference = TextDifference.ofValues("/root[1]/item[" + i + "]/" + element + "[1]/text()[1]",
+                    null, null, "a", "b");
+            exactCounts.merge(DifferencePattern.of(DifferenceCategory.TEXT, difference), 1L, Long::sum);
+            aggregator.accept(DifferenceCategory.TEXT, difference);
+        }
+
+        final List<PatternSummary> summaries = aggregator.toPatternSummaries();
+        assertEquals(differenceCount, aggregator.getDifferenceCount());
+        assertEquals(maxPatterns, summaries.size());
+        assertEquals(differenceCount, summaries.stream().mapToLong(PatternSummary::count).sum());
+        for (final PatternSummary summary : summaries) {
+            final long exactCount = exactCounts.get(summary.pattern());
+            assertTrue(summary.count() - summary.maxOvercount() <= exactCount, summary.pattern().toString());
+            assertTrue(exactCount <= summary.count(), summary.pattern().toString());
+        }
+        assertEquals("/root/item/price/text()", summaries.get(0).pattern().xPathPattern());
+        assertEquals("/root/item/name/text()", summaries.get(1).pattern().xPathPattern());
+    }
+
+    @Test
+    void removesPositionsFromXPaths() {
+        assertEquals("/root/item/@id", DifferencePattern.xPathPatternOf("/root[1]/item[23]/@id"));
+        assertEquals("/root/item[last()]/text()", DifferencePattern.xPathPatternOf("/root[1]/item[last()]/text()[2]"));
+    }
+
+    private static Document parse(final String xml) throws IOException {
+        return XmlUtils.parseXML(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), null);
+    }
+}
@@ -0,0 +1,69 @@
+package comparator.cache;
+
+import comparator.XmlComparator;
+import comparator.report.ReportFormat;
+import comparator.rules.ComparisonRules;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class FingerprintCacheTest {
+
+    private static final String CONTROL = "<root><time description=\"a\">1</time><items>"
+            + "<item id=\"1\"><name>one</name></item><item id=\"2\"><name>two</name></item><item id=\"3\"><name>three</name></item>"
+            + "</items><same><x>1</x><y>2</y></same></root>";
+    private static final String TEST = "<root><time description=\"b\">1</time><items>"
+            + "<item id=\"3\"><name>three</name></item><item id=\"1\"><name>uno</name></item><item id=\"2\"><name>two</name></item>"
+            + "</items><same><x>1</x><y>2</y></same></root>";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void cachedComparisonMatchesUncachedComparison() throws IOException {
+        final Path control = write("control.xml", CONTROL);
+        final Path test = write("test.xml", TEST);
+        final ComparisonRules rules = ComparisonRules.DEFAULT.withMatchKeys(Map.of("item", "id"), true);
+        final FingerprintCache fingerprintCache = new FingerprintCache(directory.resolve("cache"), FingerprintCache.DEFAULT_MAX_SIZE_BYTES,
+                FingerprintCache.DEFAULT_MAX_AGE);
+
+        XmlComparator.compare(control.toString(), test.toString(), directory.resolve("expected.jsonl").toString(), rules,
+                ReportFormat.JSON_LINES);
+        final String expected = Files.readString(directory.resolve("expected.jsonl"));
+
+        for (final String run : new String[]{"miss", "hit"}) {
+            final Path report = directory.resolve(run + ".jsonl");
+            XmlComparator.compare(control.toString(), test.toString(), report.toString(), rules, ReportFormat.JSON_LINES, fingerprintCache);
+            assertEquals(expected, Files.readString(report), run);
+        }
+    }
+
+    @Test
+    void hitDoesNotRecomputeArtifacts() throws IOException {
+        final Path control = write("control.xml", CONTROL);
+        final FingerprintCache fingerprintCache = new FingerprintCache(directory.resolve("cache"), FingerprintCache.DEFAULT_MAX_SIZE_BYTES,
+                Duration.ofDays(1));
+
+        final ControlDocumentArtifacts stored = fingerprintCache.getOrCompute(control, ComparisonRules.DEFAULT,
+                () -> new ControlDocumentArtifacts(new String[]{"root"}, new int[]{0}, new int[]{1}, new long[]{42L}));
+        final ControlDocumentArtifacts cached = fingerprintCache.getOrCompute(control, ComparisonRules.DEFAULT,
+                () -> fail("Cached artifacts were recomputed"));
+
+        assertNotNull(cached);
+        assertEquals(stored.nodeCount(), cached.nodeCount());
+        assertEquals(42L, cached.subtreeHashes()[0]);
+    }
+
+    private Path write(final String fileName, final String content) throws IOException {
+        return Files.writeString(directory.resolve(fileName), content);
+    }
+}
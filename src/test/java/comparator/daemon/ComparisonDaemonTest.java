@@ -0,0 +1,115 @@
+package comparator.daemon;
+
+import comparator.XmlComparator;
+import comparator.report.ReportFormat;
+import comparator.rules.ComparisonRules;
+import comparator.similarity.SimilarityResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ComparisonDaemonTest {
+
+    private static final String CONTROL = "<root><a id=\"1\">x</a><b>y</b><c/></root>";
+    private static final String TEST = "<root><a id=\"2\">x</a><b>z</b></root>";
+
+    @TempDir
+    Path directory;
+
+    private Path socketPath;
+    private ComparisonDaemon daemon;
+
+    @BeforeEach
+    void startDaemon() throws IOException {
+        socketPath = directory.resolve("daemon.sock");
+        daemon = ComparisonDaemon.start(socketPath, 2, ComparisonDaemon.DEFAULT_QUEUE_CAPACITY);
+    }
+
+    @AfterEach
+    void stopDaemon() throws IOException {
+        daemon.close();
+    }
+
+    @Test
+    void compareWritesSameReportAsDirectComparison() throws IOException {
+        final Path control = Files.writeString(directory.resolve("control.xml"), CONTROL);
+        final Path test = Files.writeString(directory.resolve("test.xml"), TEST);
+        final Path expectedReport = directory.resolve("expected.txt");
+        final Path daemonReport = directory.resolve("daemon.txt");
+        final SimilarityResult expected = XmlComparator.compare(control.toString(), test.toString(), expectedReport.toString(),
+                ComparisonRules.DEFAULT, ReportFormat.TEXT);
+
+        final String response = send("COMPARE\t" + control + "\t" + test + "\t" + daemonReport + "\n");
+
+        assertEquals(String.join("\t", "OK", String.valueOf(expected.controlXmlNodeCount()), String.valueOf(expected.mismatchCount()),
+                String.format(Locale.ROOT, "%.2f", expected.similarity()), daemonReport.toAbsolutePath().toString()), response);
+        assertEquals(Files.readString(expectedReport), Files.readString(daemonReport));
+    }
+
+    @Test
+    void readsRequestsSplitAcrossWrites() throws Exception {
+        final Path control = Files.writeString(directory.resolve("control.xml"), CONTROL);
+        final Path report = directory.resolve("split.jsonl");
+
+        try (final SocketChannel client = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            write(client, "COMPARE\t" + control + "\t");
+            Thread.sleep(200);
+            write(client, control + "\t" + report + "\r\n");
+
+            assertTrue(readResponse(client).startsWith("OK\t"));
+        }
+        assertTrue(Files.readString(report).contains("\"summary\""));
+    }
+
+    @Test
+    void reportsProtocolErrors() throws IOException {
+        assertEquals("ERROR\tUnknown command STATUS", send("STATUS\n"));
+        assertEquals("ERROR\tExpected COMPARE <control> <test> <output> [rules] separated by tabs", send("COMPARE\tonly-one\n"));
+        assertEquals("ERROR\tEmpty request", send("\n"));
+        assertTrue(send("COMPARE\t" + directory.resolve("missing.xml") + "\t" + directory.resolve("missing.xml") + "\t"
+                + directory.resolve("out.txt") + "\n").startsWith("ERROR\t"));
+    }
+
+    @Test
+    void shutsDownOnRequest() throws Exception {
+        assertEquals("OK", send("SHUTDOWN\n"));
+
+        daemon.awaitTermination();
+        assertFalse(Files.exists(socketPath));
+    }
+
+    private String send(final String request) throws IOException {
+        try (final SocketChannel client = SocketChannel.open(UnixDomainSocketAddress.of(socketPath))) {
+            write(client, request);
+            return readResponse(client);
+        }
+    }
+
+    private static void write(final SocketChannel client, final String text) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            client.write(buffer);
+        }
+    }
+
+    private static String readResponse(final SocketChannel client) throws IOException {
+        final InputStream input = Channels.newInputStream(client);
+        return new String(input.readAllBytes(), StandardCharsets.UTF_8).stripTrailing();
+    }
+}
@@ -0,0 +1,81 @@
+package comparator.fingerprint;
+
+import comparator.DifferenceAnalyzer;
+import comparator.DifferenceFinder;
+import comparator.DifferenceResult;
+import comparator.XmlUtils;
+import comparator.cache.ControlDocumentArtifacts;
+import comparator.metrics.ComparisonMetrics;
+import comparator.metrics.Counter;
+import comparator.rules.ComparisonRules;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.xmlunit.diff.Difference;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubtreePruningTest {
+
+    private static final String SAME = "<same><x a=\"1\">1</x><y>2<z/></y></same>";
+
+    @Test
+    void prunedComparisonMatchesUnprunedComparison() throws IOException {
+        assertSameAsUnpruned("<root>" + SAME + "<v>1</v>" + SAME + "</root>", "<root>" + SAME + "<v>2</v>" + SAME + "</root>",
+                ComparisonRules.DEFAULT);
+        assertSameAsUnpruned("<root><v>1</v>" + SAME + "<w t=\"1\"/></root>", "<root>" + SAME + "<v>1</v><w t=\"2\"/>" + SAME + "</root>",
+                ComparisonRules.DEFAULT);
+        assertSameAsUnpruned("<root><a><toBeIgnored>x</toBeIgnored>" + SAME + "</a><b>1</b></root>",
+                "<root><a>" + SAME + "<toBeIgnored>y</toBeIgnored></a><b>2</b></root>", ComparisonRules.DEFAULT);
+        assertSameAsUnpruned("<items><item id=\"1\">" + SAME + "</item><item id=\"2\"><v>1</v></item></items>",
+                "<items><item id=\"2\"><v>2</v></item><item id=\"1\">" + SAME + "</item></items>",
+                ComparisonRules.DEFAULT.withMatchKeys(Map.of("item", "@id"), false));
+    }
+
+    @Test
+    void skipsIdenticalSubtrees() throws IOException {
+        final ComparisonMetrics metrics = new ComparisonMetrics();
+        compare("<root>" + SAME + "<v>1</v></root>", "<root>" + SAME + "<v>2</v></root>", ComparisonRules.DEFAULT, false, metrics);
+
+        assertTrue(metrics.getCount(Counter.PRUNED_SUBTREES) > 0);
+    }
+
+    private static void assertSameAsUnpruned(final String control, final String test, final ComparisonRules rules) throws IOException {
+        final ComparisonMetrics unprunedMetrics = new ComparisonMetrics();
+        final String unpruned = compare(control, test, rules, true, unprunedMetrics);
+
+        assertEquals(0, unprunedMetrics.getCount(Counter.PRUNED_SUBTREES));
+        assertEquals(unpruned, compare(control, test, rules, false, new ComparisonMetrics()), control + " vs " + test);
+    }
+
+    private static String compare(final String control, final String test, final ComparisonRules rules, final boolean disablePruning,
+                                  final ComparisonMetrics metrics) throws IOException {
+        final Document preparedControl = DifferenceFinder.prepareForComparison(parse(control));
+        final ControlDocumentArtifacts artifacts = ControlDocumentArtifacts.of(preparedControl, DifferenceFinder.subtreeHasher(rules));
+        if (disablePruning) {
+            for (int i = 0; i < artifacts.subtreeHashes().length; i++) {
+                artifacts.subtreeHashes()[i] = ~artifacts.subtreeHashes()[i];
+            }
+        }
+
+        final List<Difference> differences = new ArrayList<>();
+        DifferenceFinder.findPreparedDifferences(preparedControl, parse(test), rules, artifacts, metrics, differences::add);
+        return render(DifferenceAnalyzer.analyzeDifferences(differences));
+    }
+
+    private static String render(final DifferenceResult result) {
+        return "text " + result.textDifferences() + "\nattributes " + result.attributeDifferences()
+                + "\norder " + result.orderDifferences() + "\nother " + result.otherDifferences();
+    }
+
+    private static Document parse(final String xml) throws IOException {
+        return XmlUtils.parseXML(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), null);
+    }
+}
@@ -0,0 +1,106 @@
+package comparator.io;
+
+import comparator.XmlComparator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class XmlSourcesTest {
+
+    private static final String CONTROL = "<root><a id=\"1\">x</a><b>y</b><c/></root>";
+    private static final String TEST = "<root><a id=\"2\">x</a><b>z</b></root>";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsPlainGzipAndZipSources() throws IOException {
+        final byte[] xml = CONTROL.getBytes(StandardCharsets.UTF_8);
+
+        assertArrayEquals(xml, read(Files.write(directory.resolve("plain.xml"), xml)));
+        assertArrayEquals(xml, read(gzip("control.xml.gz", CONTROL)));
+        assertArrayEquals(xml, read(zip("control.zip", CONTROL)));
+    }
+
+    @Test
+    void readsLargeSourcesThroughMemoryMapping() throws IOException {
+        final StringBuilder builder = new StringBuilder("<root>");
+        for (int i = 0; builder.length() < 5 * 1024 * 1024; i++) {
+            builder.append("<item id=\"").append(i).append("\">value ").append(i).append("</item>");
+        }
+        builder.append("</root>");
+        final byte[] xml = builder.toString().getBytes(StandardCharsets.UTF_8);
+
+        assertArrayEquals(xml, read(Files.write(directory.resolve("large.xml"), xml)));
+        assertArrayEquals(xml, read(gzip("large.xml.gz", builder.toString())));
+    }
+
+    @Test
+    void rejectsZipWithoutXmlEntry() throws IOException {
+        final Path archive = directory.resolve("notes.zip");
+        try (final ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(archive))) {
+            output.putNextEntry(new ZipEntry("notes.txt"));
+            output.write("text".getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+        }
+
+        assertEquals("Zip archive contains no .xml entry", assertThrows(IOException.class, () -> read(archive)).getMessage());
+    }
+
+    @Test
+    void compressedComparisonMatchesPlainComparison() throws IOException {
+        final Path plainReport = directory.resolve("plain.txt");
+        XmlComparator.compare(Files.writeString(directory.resolve("control.xml"), CONTROL).toString(),
+                Files.writeString(directory.resolve("test.xml"), TEST).toString(), plainReport.toString());
+
+        final Path gzipReport = directory.resolve("gzip.txt");
+        XmlComparator.compare(gzip("control.xml.gz", CONTROL).toString(), gzip("test.xml.gz", TEST).toString(), gzipReport.toString());
+        final Path zipReport = directory.resolve("zip.txt");
+        XmlComparator.compare(zip("control.zip", CONTROL).toString(), zip("test.zip", TEST).toString(), zipReport.toString());
+
+        assertEquals(Files.readString(plainReport), Files.readString(gzipReport));
+        assertEquals(Files.readString(plainReport), Files.readString(zipReport));
+    }
+
+    private Path gzip(final String fileName, final String xml) throws IOException {
+        final Path file = directory.resolve(fileName);
+        try (final OutputStream output = new GZIPOutputStream(Files.newOutputStream(file))) {
+            output.write(xml.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+
+    private Path zip(final String fileName, final String xml) throws IOException {
+        final Path file = directory.resolve(fileName);
+        try (final ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(file))) {
+            output.putNextEntry(new ZipEntry("docs/"));
+            output.closeEntry();
+            output.putNextEntry(new ZipEntry("README.txt"));
+            output.write("readme".getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+            output.putNextEntry(new ZipEntry("docs/document.xml"));
+            output.write(xml.getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+        }
+        return file;
+    }
+
+    private static byte[] read(final Path file) throws IOException {
+        try (final InputStream input = XmlSources.open(file)) {
+            return input.readAllBytes();
+        }
+    }
+}
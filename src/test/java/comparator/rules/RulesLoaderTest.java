@@ -0,0 +1,54 @@
+package comparator.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RulesLoaderTest {
+
+    @Test
+    void loadsTimeAttributeRule() throws IOException {
+        final ComparisonRules rules = RulesLoader.load(rulesFile("time.attribute.bikId=1234"));
+
+        assertEquals(Set.of("bikId=\"1234\""), rules.timeWithDifferentEnding());
+        CompiledRules.of(rules);
+    }
+
+    @Test
+    void rejectsTimeAttributeRuleWithEmptyValue() throws IOException {
+        final IOException exception = assertThrows(IOException.class, () -> RulesLoader.load(rulesFile("time.attribute.bikId=")));
+
+        assertTrue(exception.getMessage().contains("'time.attribute.bikId='"));
+    }
+
+    @Test
+    void rejectsTimeAttributeRuleWithQuotes() throws IOException {
+        final IOException exception = assertThrows(IOException.class, () -> RulesLoader.load(rulesFile("time.attribute.bikId=12\"34")));
+
+        assertTrue(exception.getMessage().contains("'time.attribute.bikId=12\"34'"));
+    }
+
+    @Test
+    void rejectsMalformedProgrammaticTimeAttribute() {
+        final ComparisonRules rules = new ComparisonRules(Set.of(), Set.of("bikId"), Map.of(), Map.of(), Map.of(), false);
+
+        final IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> CompiledRules.of(rules));
+
+        assertTrue(exception.getMessage().contains("'bikId'"));
+    }
+
+    private static Path rulesFile(final String content) throws IOException {
+        final Path rulesFile = Files.createTempFile("rules", ".properties");
+        rulesFile.toFile().deleteOnExit();
+        Files.writeString(rulesFile, content + "\n");
+        return rulesFile;
+    }
+}
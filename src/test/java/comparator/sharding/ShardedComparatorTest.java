@@ -0,0 +1,155 @@
+package comparator.sharding;
+
+import comparator.DifferenceAnalyzer;
+import comparator.DifferenceFinder;
+import comparator.DifferenceResult;
+import comparator.XmlComparator;
+import comparator.XmlUtils;
+import comparator.diffrence.ReportDifference;
+import comparator.rules.ComparisonRules;
+import comparator.watch.ShardResultCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardedComparatorTest {
+
+    private static final String CHILDREN = "<a id=\"1\">x</a><b>y</b><c/>";
+
+    @Test
+    void reportsRootAttributeDifferenceOnce() throws IOException {
+        final DifferenceResult result = compareSharded(
+                "<root version=\"1\">" + CHILDREN + "</root>",
+                "<root version=\"2\">" + CHILDREN + "</root>");
+
+        assertEquals(List.of("/root[1]/@version"), xPaths(result.attributeDifferences()));
+        assertTrue(result.textDifferences().isEmpty());
+        assertTrue(result.otherDifferences().isEmpty());
+    }
+
+    @Test
+    void reportsMissingRootAttributeOnce() throws IOException {
+        final String control = "<root version=\"1\">" + CHILDREN + "</root>";
+        final String test = "<root>" + CHILDREN + "</root>";
+
+        assertSameDifferences(compareUnsharded(control, test), compareSharded(control, test));
+    }
+
+    @Test
+    void keepsSkippingRootAttributeInEveryShard() throws IOException {
+        final String control = "<root>" + CHILDREN + "</root>";
+        final String test = "<root mapping=\"not used\"><a id=\"1\">changed</a><b>y</b><c/></root>";
+
+        assertSameDifferences(compareUnsharded(control, test), compareSharded(control, test));
+    }
+
+    @Test
+    void comparesOnlyChangedShardsWithCache() throws IOException {
+        final String control = "<root version=\"1\">" + CHILDREN + "</root>";
+        final ShardResultCache shardCache = new ShardResultCache();
+
+        shardCache.startRun();
+        final DifferenceResult firstRun = compareSharded(control, "<root version=\"2\"><a id=\"1\">x</a><b>z</b><c/></root>", shardCache);
+        assertEquals(4, shardCache.getComparedShards());
+        assertEquals(1, firstRun.textDifferences().size());
+
+        shardCache.startRun();
+        final String test = "<root version=\"2\"><a id=\"1\">changed</a><b>z</b><c/></root>";
+        final DifferenceResult secondRun = compareSharded(control, test, shardCache);
+
+        assertEquals(1, shardCache.getComparedShards());
+        assertEquals(3, shardCache.getReusedShards());
+        assertSameDifferences(compareSharded(control, test), secondRun);
+        assertSameDifferences(compareUnsharded(control, test), secondRun);
+    }
+
+    @Test
+    void comparesDeferredDocumentsWithManyShardsInParallel() throws Exception {
+        final StringBuilder control = new StringBuilder("<root>");
+        final StringBuilder test = new StringBuilder("<root>");
+        for (int i = 0; i < 200; i++) {
+            control.append("<item id=\"").append(i).append("\"><name>n").append(i).append("</name><value>").append(i).append("</value></item>");
+            test.append("<item id=\"").append(i).append("\"><name>n").append(i).append("</name><value>").append(i % 7 == 0 ? -i : i)
+                    .append("</value></item>");
+        }
+        control.append("</root>");
+        test.append("</root>");
+
+        final DifferenceResult expected = compareUnsharded(control.toString(), test.toString());
+        final ForkJoinPool pool = new ForkJoinPool(8);
+        try {
+            for (int run = 0; run < 5; run++) {
+                assertSameDifferences(expected, ShardedComparator.compare(parseDeferred(control.toString()),
+                        parseDeferred(test.toString()), ComparisonRules.DEFAULT, null, pool));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void shardedReportMatchesUnshardedReport(@TempDir final Path directory) throws IOException {
+        final Path control = Files.writeString(directory.resolve("control.xml"), "<root version=\"1\">"
+                + "<item id=\"1\"><name>one</name><value>1</value></item>"
+                + "<item id=\"2\" type=\"a\"><name>two</name><value>2</value></item>"
+                + "<group><x>1</x><y>2</y></group><item id=\"3\"><name>three</name></item><note>n</note></root>");
+        final Path test = Files.writeString(directory.resolve("test.xml"), "<root version=\"2\">"
+                + "<item id=\"1\"><value>1</value><name>uno</name></item>"
+                + "<item id=\"2\" type=\"b\"><name>two</name><value>2</value><extra/></item>"
+                + "<group><y>2</y><x>1</x></group><item id=\"3\"><name>drei</name></item></root>");
+
+        XmlComparator.compare(control.toString(), test.toString(), directory.resolve("unsharded.txt").toString());
+        for (final String keyAttribute : new String[]{null, "id"}) {
+            final Path report = directory.resolve("sharded-" + keyAttribute + ".txt");
+            XmlComparator.compareSharded(control.toString(), test.toString(), report.toString(), keyAttribute);
+            assertEquals(Files.readString(directory.resolve("unsharded.txt")), Files.readString(report), "key " + keyAttribute);
+        }
+    }
+
+    private static DifferenceResult compareSharded(final String control, final String test, final ShardCache shardCache)
+            throws IOException {
+        return ShardedComparator.compare(parse(control), parse(test), ComparisonRules.DEFAULT, null, ForkJoinPool.commonPool(),
+                shardCache);
+    }
+
+    private static DifferenceResult compareSharded(final String control, final String test) throws IOException {
+        return ShardedComparator.compare(parse(control), parse(test), ComparisonRules.DEFAULT, null, ForkJoinPool.commonPool());
+    }
+
+    private static DifferenceResult compareUnsharded(final String control, final String test) throws IOException {
+        return DifferenceAnalyzer.analyzeDifferences(DifferenceFinder.findDifferences(parse(control), parse(test), ComparisonRules.DEFAULT));
+    }
+
+    private static void assertSameDifferences(final DifferenceResult expected, final DifferenceResult actual) {
+        assertEquals(xPaths(expected.textDifferences()), xPaths(actual.textDifferences()));
+        assertEquals(xPaths(expected.attributeDifferences()), xPaths(actual.attributeDifferences()));
+        assertEquals(xPaths(expected.orderDifferences()), xPaths(actual.orderDifferences()));
+        assertEquals(xPaths(expected.otherDifferences()), xPaths(actual.otherDifferences()));
+    }
+
+    private static List<String> xPaths(final List<ReportDifference> differences) {
+        return differences.stream().map(ReportDifference::getNodeXPath).toList();
+    }
+
+    private static Document parseDeferred(final String xml) throws Exception {
+        final DocumentBuilderFactory documentFactory = DocumentBuilderFactory.newInstance();
+        documentFactory.setFeature("http://apache.org/xml/features/dom/defer-node-expansion", true);
+        return documentFactory.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static Document parse(final String xml) throws IOException {
+        return XmlUtils.parseXML(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), null);
+    }
+}
@@ -0,0 +1,84 @@
+package comparator.store;
+
+import comparator.DifferenceAnalyzer;
+import comparator.DifferenceCategory;
+import comparator.DifferenceFinder;
+import comparator.XmlUtils;
+import comparator.diffrence.NonTextDifference;
+import comparator.diffrence.ReportDifference;
+import comparator.diffrence.TextDifference;
+import comparator.rules.ComparisonRules;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DifferenceStoreTest {
+
+    @Test
+    void storesComparisonDifferencesLikeLists() throws IOException {
+        final String control = "<root version=\"1\"><a id=\"1\">x</a><b>y</b><c t=\"1\"/><d/><e>1</e></root>";
+        final String test = "<root version=\"2\"><b>z</b><a id=\"2\" extra=\"1\">x</a><c/><e>2</e></root>";
+
+        final Map<DifferenceCategory, List<ReportDifference>> expected = new EnumMap<>(DifferenceCategory.class);
+        final DifferenceStore differenceStore = new DifferenceStore();
+        DifferenceFinder.findDifferences(parse(control), parse(test), ComparisonRules.DEFAULT, difference -> {
+            DifferenceAnalyzer.analyzeDifference(difference, (category, reportDifference) ->
+                    expected.computeIfAbsent(category, key -> new ArrayList<>()).add(reportDifference));
+            DifferenceAnalyzer.analyzeDifference(difference, differenceStore);
+        });
+
+        assertSameDifferences(expected, differenceStore);
+    }
+
+    @Test
+    void growsAndKeepsValuesAcrossManyDifferences() {
+        final Map<DifferenceCategory, List<ReportDifference>> expected = new EnumMap<>(DifferenceCategory.class);
+        final DifferenceStore differenceStore = new DifferenceStore();
+        for (int i = 0; i < 500; i++) {
+            final Map<String, String> attributes = i % 3 == 0 ? null : Map.of("id", String.valueOf(i % 5));
+            final ReportDifference difference = i % 4 == 0
+                    ? new NonTextDifference("/root[1]/item[" + i % 7 + "]", attributes, null, "Different order of nodes")
+                    : new TextDifference("/root[1]/item[" + i % 7 + "]/text()[1]", attributes, Map.of(), "v" + i, i % 2 == 0 ? null : "w");
+            final DifferenceCategory category = DifferenceCategory.values()[i % DifferenceCategory.values().length];
+
+            expected.computeIfAbsent(category, key -> new ArrayList<>()).add(difference);
+            differenceStore.accept(category, difference);
+        }
+
+        assertEquals(500, differenceStore.size());
+        assertSameDifferences(expected, differenceStore);
+    }
+
+    private static void assertSameDifferences(final Map<DifferenceCategory, List<ReportDifference>> expected,
+                                              final DifferenceStore differenceStore) {
+        for (final DifferenceCategory category : DifferenceCategory.values()) {
+            final List<ReportDifference> expectedDifferences = expected.getOrDefault(category, List.of());
+            final List<ReportDifference> storedDifferences = differenceStore.getDifferences(category);
+
+            assertEquals(expectedDifferences.size(), differenceStore.getCount(category), category.name());
+            assertEquals(render(expectedDifferences), render(storedDifferences), category.name());
+        }
+    }
+
+    private static List<String> render(final List<ReportDifference> differences) {
+        final List<String> rendered = new ArrayList<>();
+        for (final ReportDifference difference : differences) {
+            rendered.add(difference.getClass().getSimpleName() + " " + difference + " " + difference.getControlNodeAttributes()
+                    + " " + difference.getTestNodeAttributes());
+        }
+        return rendered;
+    }
+
+    private static Document parse(final String xml) throws IOException {
+        return XmlUtils.parseXML(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), null);
+    }
+}
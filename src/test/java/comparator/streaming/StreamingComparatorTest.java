@@ -0,0 +1,64 @@
+package comparator.streaming;
+
+import comparator.XmlComparator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamingComparatorTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void mergesTextSplitByComments() throws IOException {
+        assertSameReport("<root><value>a <!--x--> b</value></root>", "<root><value>ab</value></root>");
+        assertSameReport("<root><value>a<!--x-->b</value></root>", "<root><value>a<!--y-->c</value></root>");
+    }
+
+    @Test
+    void trimsCdataSectionsLikeDom() throws IOException {
+        assertSameReport("<root><c> x <![CDATA[ ]]>y</c></root>", "<root><c> 1 <![CDATA[ ]]>2</c></root>");
+        assertSameReport("<root><c><![CDATA[]]><![CDATA[y]]></c></root>", "<root><c>y<!--c--></c></root>");
+    }
+
+    @Test
+    void splitsTextAtProcessingInstructions() throws IOException {
+        assertSameReport("<root><value>a<?p 1?>b</value></root>", "<root><value>ab</value></root>");
+        assertSameReport("<root><value><?p 1?><!--d--></value></root>", "<root><value>z</value></root>");
+    }
+
+    @Test
+    void reportsRootMismatchWithoutComparingChildren() throws IOException {
+        assertSameReport("<root id=\"1\"><a>x</a><b><c/></b></root>", "<other><a>y</a></other>");
+    }
+
+    @Test
+    void comparesAttributesInNameOrder() throws IOException {
+        assertSameReport("<root><c t=\"2\" id=\"2\"/></root>", "<root><c t=\"1\" id=\"x\"/></root>");
+        assertSameReport("<root><d id=\"2\" t=\"1\"/></root>", "<root><d type=\"2\" a=\"1\"/></root>");
+    }
+
+    @Test
+    void reportsMissingSiblingsInDocumentOrder() throws IOException {
+        assertSameReport("<r><b id=\"1\"></b><c> x <d></d></c><c type=\"2\">x</c></r>", "<r><a><a id=\"2\" t=\"1\"></a></a></r>");
+        assertSameReport("<r><c id=\"1\" type=\"1\"></c></r>", "<r><a>y</a><c type=\"2\"><d/></c><b type=\"1\"> x </b></r>");
+    }
+
+    private void assertSameReport(final String control, final String test) throws IOException {
+        final Path controlXml = Files.writeString(directory.resolve("control.xml"), control);
+        final Path testXml = Files.writeString(directory.resolve("test.xml"), test);
+        final Path domReport = directory.resolve("dom.txt");
+        final Path streamingReport = directory.resolve("streaming.txt");
+
+        XmlComparator.compare(controlXml.toString(), testXml.toString(), domReport.toString());
+        XmlComparator.compareStreaming(controlXml.toString(), testXml.toString(), streamingReport.toString());
+
+        assertEquals(Files.readString(domReport), Files.readString(streamingReport), () -> control + " vs " + test);
+    }
+}
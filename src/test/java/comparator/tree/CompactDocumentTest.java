@@ -0,0 +1,54 @@
+package comparator.tree;
+
+import comparator.XmlComparator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompactDocumentTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void mergesTextSplitByComments() throws IOException {
+        final CompactDocument document = parse("<root>a <!--x--> b<![CDATA[ c ]]><?p 1?>d</root>");
+        final int first = document.getFirstChild(document.getRoot());
+        final int second = document.getNextSibling(first);
+
+        assertEquals("abc", document.getText(first));
+        assertEquals("d", document.getText(second));
+        assertEquals(CompactDocument.NONE, document.getNextSibling(second));
+    }
+
+    @Test
+    void compactReportMatchesDomReport() throws IOException {
+        assertSameReport("<root><value>a<!--x-->b</value></root>", "<root><value>a<!--y-->c</value></root>");
+        assertSameReport("<r><c> x <![CDATA[ ]]>y</c><c><![CDATA[]]><![CDATA[y]]></c></r>", "<r><c> 1 <![CDATA[ ]]>2</c><c>y</c></r>");
+        assertSameReport("<root><value>a<?p 1?>b</value></root>", "<root><value>ab</value></root>");
+        assertSameReport("<root id=\"1\"><a>x</a></root>", "<other><a>y</a></other>");
+    }
+
+    private void assertSameReport(final String control, final String test) throws IOException {
+        final Path controlXml = Files.writeString(directory.resolve("control.xml"), control);
+        final Path testXml = Files.writeString(directory.resolve("test.xml"), test);
+        final Path domReport = directory.resolve("dom.txt");
+        final Path compactReport = directory.resolve("compact.txt");
+
+        XmlComparator.compare(controlXml.toString(), testXml.toString(), domReport.toString());
+        XmlComparator.compareCompact(controlXml.toString(), testXml.toString(), compactReport.toString());
+
+        assertEquals(Files.readString(domReport), Files.readString(compactReport), () -> control + " vs " + test);
+    }
+
+    private static CompactDocument parse(final String xml) throws IOException {
+        return CompactDocument.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+}